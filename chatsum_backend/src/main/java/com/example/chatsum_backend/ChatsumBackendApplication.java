@@ -1,12 +1,13 @@
 package com.example.chatsum_backend;
 
+import com.example.chatsum_backend.config.HandoffProperties;
 import com.example.chatsum_backend.config.OpenAiProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties(OpenAiProperties.class)
+@EnableConfigurationProperties({OpenAiProperties.class, HandoffProperties.class})
 public class ChatsumBackendApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,122 @@
+package com.example.chatsum_backend.api.controller;
+
+import com.example.chatsum_backend.api.dto.HandoffBatchRequest;
+import com.example.chatsum_backend.api.dto.HandoffBatchResponse;
+import com.example.chatsum_backend.jobs.HandoffBatch;
+import com.example.chatsum_backend.jobs.HandoffBatchService;
+import com.example.chatsum_backend.jobs.JobStore;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@RestController
+@RequestMapping("/api/handoff")
+public class HandoffBatchesController {
+
+    // Long nightly runs: keep the stream open up to 6h, clients can always reconnect (finished items are replayed)
+    private static final long SSE_TIMEOUT_MS = 6 * 60 * 60 * 1000L;
+
+    private final HandoffBatchService batches;
+    private final JobStore store;
+
+    public HandoffBatchesController(HandoffBatchService batches, JobStore store) {
+        this.batches = batches;
+        this.store = store;
+    }
+
+    @PostMapping("/batches")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Map<String, String> createBatch(@Valid @RequestBody HandoffBatchRequest request) {
+        String batchId = batches.enqueue(request);
+        return Map.of("batchId", batchId);
+    }
+
+    /**
+     * Aggregate progress. Per-conversation results are only included on request,
+     * since a finished batch of hundreds of handoffs is large.
+     */
+    @GetMapping("/batches/{batchId}")
+    public HandoffBatchResponse getBatch(
+            @PathVariable String batchId,
+            @RequestParam(defaultValue = "false") boolean includeResults
+    ) {
+        HandoffBatch batch = find(batchId);
+        return new HandoffBatchResponse(
+                batch.id(),
+                batch.status().name(),
+                batch.total(),
+                batch.completed(),
+                batch.failed(),
+                batch.progress(),
+                batch.items().stream().map(it -> toItem(it, includeResults)).toList()
+        );
+    }
+
+    /**
+     * Server-Sent Events: one "item" event per finished conversation (already-finished ones are
+     * replayed first), then a final "done" event with the aggregate status.
+     */
+    @GetMapping("/batches/{batchId}/events")
+    public SseEmitter streamBatch(@PathVariable String batchId) {
+        HandoffBatch batch = find(batchId);
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+
+        // items can finish on several batch threads at once; the emitter serializes the sends
+        Consumer<HandoffBatch.Item> listener = new Consumer<>() {
+            private final AtomicInteger sent = new AtomicInteger();
+
+            @Override
+            public void accept(HandoffBatch.Item item) {
+                try {
+                    emitter.send(SseEmitter.event().name("item").data(toItem(item, true)));
+                    if (sent.incrementAndGet() == batch.total()) {
+                        emitter.send(SseEmitter.event().name("done").data(Map.of(
+                                "batchId", batch.id(),
+                                "status", batch.status().name(),
+                                "completed", batch.completed(),
+                                "failed", batch.failed()
+                        )));
+                        emitter.complete();
+                    }
+                } catch (IOException e) {
+                    batch.unsubscribe(this);
+                    emitter.completeWithError(e);
+                }
+            }
+        };
+
+        emitter.onCompletion(() -> batch.unsubscribe(listener));
+        emitter.onTimeout(() -> batch.unsubscribe(listener));
+        batch.subscribe(listener);
+
+        if (batch.total() == 0) emitter.complete();
+        return emitter;
+    }
+
+    private HandoffBatch find(String batchId) {
+        return store.getBatch(batchId).orElseThrow(() -> new BatchNotFound(batchId));
+    }
+
+    private static HandoffBatchResponse.Item toItem(HandoffBatch.Item it, boolean includeResult) {
+        return new HandoffBatchResponse.Item(
+                it.index(),
+                it.conversationId(),
+                it.status().name(),
+                it.error(),
+                includeResult ? it.result() : null
+        );
+    }
+
+    private static class BatchNotFound extends ResponseStatusException {
+        private static final long serialVersionUID = 1L;
+
+        public BatchNotFound(String id) { super(HttpStatus.NOT_FOUND, "Batch not found: " + id); }
+    }
+}
@@ -1,14 +1,20 @@
 package com.example.chatsum_backend.api.controller;
 
+import com.example.chatsum_backend.api.dto.HandoffPlanResponse;
 import com.example.chatsum_backend.api.dto.HandoffRequest;
 import com.example.chatsum_backend.api.dto.HandoffResponse;
-import com.example.chatsum_backend.application.HandoffService;
-import com.example.chatsum_backend.application.ModelLimits;
+import com.example.chatsum_backend.application.HandoffPlanner;
+import com.example.chatsum_backend.config.HandoffProperties;
+import com.example.chatsum_backend.jobs.HandoffJobService;
+import com.example.chatsum_backend.openai.DeadlineExceededException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
@@ -16,34 +22,70 @@ public class HandoffController {
 
     private static final Logger log = LoggerFactory.getLogger(HandoffController.class);
 
-    private final HandoffService handoffService;
+    private final HandoffJobService jobService;
+    private final HandoffPlanner planner;
+    private final HandoffProperties props;
 
-    public HandoffController(HandoffService handoffService) {
-        this.handoffService = handoffService;
+    public HandoffController(HandoffJobService jobService, HandoffPlanner planner, HandoffProperties props) {
+        this.jobService = jobService;
+        this.planner = planner;
+        this.props = props;
     }
 
+    /**
+     * Dry run: turn/chunk counts, tokens, cost and ETA per stage from local parsing and chunking only,
+     * so a client can pick a cheaper target model or trim the transcript before paying for it.
+     */
+    @PostMapping(
+            value = "/handoff/plan",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public HandoffPlanResponse plan(@Valid @RequestBody HandoffRequest request) {
+        return planner.plan(request.transcript(), request.targetModel(), request.developerMode());
+    }
+
+    /**
+     * Runs on the handoff pool like a job; the request thread goes back to Tomcat while OpenAI works
+     * and the response is written when the job completes (or the sync timeout fires).
+     */
     @PostMapping(
             value = "/handoff",
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    public HandoffResponse generate(@Valid @RequestBody HandoffRequest request) {
+    public DeferredResult<HandoffResponse> generate(@Valid @RequestBody HandoffRequest request) {
         int transcriptLength = request.transcript().length();
         log.info("POST /api/handoff received (transcriptLength={} chars targetModel={} devMode={})",
                 transcriptLength, request.targetModel(), request.developerMode());
 
-        HandoffResponse response = handoffService.generate(
-                request.transcript(),
-                request.targetModel(),
-                request.developerMode()
-        );
+        int timeoutSeconds = props.syncTimeoutSeconds();
+        // -1 = no async timeout at all (null would fall back to the container default)
+        DeferredResult<HandoffResponse> deferred = new DeferredResult<>(timeoutSeconds > 0 ? timeoutSeconds * 1000L : -1L);
+
+        CompletableFuture<HandoffResponse> job = jobService.submit(request);
+
+        deferred.onTimeout(() -> {
+            job.cancel(false);
+            deferred.setErrorResult(new DeadlineExceededException(
+                    "Handoff did not finish within " + timeoutSeconds + "s; use /api/handoff/jobs for long transcripts"));
+        });
+        // client went away: stop paying for a response nobody reads
+        deferred.onError(err -> job.cancel(false));
 
-        log.info("POST /api/handoff completed (summaryLength={}, seedPromptLength={}, neededContextLength={})",
-                response.handoffSummary().length(),
-                response.seedPrompt().length(),
-                response.neededContext() == null ? 0 : response.neededContext().length()
-        );
+        job.whenComplete((response, err) -> {
+            if (err != null) {
+                deferred.setErrorResult(err); // no-op after a timeout
+                return;
+            }
+            log.info("POST /api/handoff completed (summaryLength={}, seedPromptLength={}, neededContextLength={})",
+                    response.handoffSummary().length(),
+                    response.seedPrompt().length(),
+                    response.neededContext() == null ? 0 : response.neededContext().length()
+            );
+            deferred.setResult(response);
+        });
 
-        return response;
+        return deferred;
     }
 }
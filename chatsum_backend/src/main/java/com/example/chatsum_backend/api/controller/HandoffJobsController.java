@@ -1,20 +1,32 @@
 package com.example.chatsum_backend.api.controller;
 
 import com.example.chatsum_backend.api.dto.HandoffJobResponse;
+import com.example.chatsum_backend.api.dto.HandoffJobStatusResponse;
 import com.example.chatsum_backend.api.dto.HandoffRequest;
 import com.example.chatsum_backend.jobs.HandoffJob;
 import com.example.chatsum_backend.jobs.HandoffJobService;
 import com.example.chatsum_backend.jobs.JobStore;
+import com.example.chatsum_backend.jobs.StoredResult;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/handoff")
 public class HandoffJobsController {
 
+    private static final MediaType TEXT_UTF8 = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
     private final HandoffJobService jobs;
     private final JobStore store;
 
@@ -31,9 +43,87 @@ public class HandoffJobsController {
     }
 
     @GetMapping("/jobs/{jobId}")
-    public HandoffJobResponse getJob(@PathVariable String jobId) {
-        HandoffJob job = store.get(jobId).orElseThrow(() -> new JobNotFound(jobId));
+    public ResponseEntity<HandoffJobResponse> getJob(@PathVariable String jobId, WebRequest request) {
+        HandoffJob job = find(jobId);
+        job.markPolled();
+        return conditional(job, request, () -> toResponse(job));
+    }
+
+    /** Same poll without the result, for progress bars. */
+    @GetMapping("/jobs/{jobId}/status")
+    public ResponseEntity<HandoffJobStatusResponse> getJobStatus(@PathVariable String jobId, WebRequest request) {
+        HandoffJob job = find(jobId);
+        job.markPolled();
+        return conditional(job, request, () -> new HandoffJobStatusResponse(
+                job.id(), job.status().name(), job.progress(), job.message(), job.error()));
+    }
+
+    /**
+     * One field of a finished job's result as plain text, e.g. /result/seedPrompt, inflated from the
+     * off-heap copy straight into the response.
+     * 204 if the field is empty (neededContext), 409 while the job has no result.
+     */
+    @GetMapping(value = "/jobs/{jobId}/result/{field}", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StreamingResponseBody> getResultField(
+            @PathVariable String jobId,
+            @PathVariable String field,
+            WebRequest request
+    ) {
+        HandoffJob job = find(jobId);
+        job.markPolled();
+        StoredResult.Field f = StoredResult.Field.byKey(field);
+        if (f == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown result field: " + field);
+        }
+        StoredResult result = job.storedResult();
+        if (result == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job has no result (status=" + job.status() + ")");
+        }
+        if (result.rawLength(f) <= 0) return ResponseEntity.noContent().build();
+
+        String etag = etag(job);
+        if (request.checkNotModified(etag)) return null; // 304 already written
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(TEXT_UTF8)
+                .contentLength(result.rawLength(f))
+                .body(out -> result.writeTo(f, out));
+    }
+
+    /**
+     * Cancels a queued or running job and aborts its in-flight OpenAI calls.
+     * Idempotent: a finished job is returned unchanged.
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public HandoffJobResponse cancelJob(@PathVariable String jobId) {
+        HandoffJob job = find(jobId);
+        jobs.cancel(jobId, "Cancelled by client");
+        return toResponse(job);
+    }
+
+    private HandoffJob find(String jobId) {
+        return store.get(jobId).orElseThrow(() -> new JobNotFound(jobId));
+    }
+
+    /**
+     * 304 without building the body when the client's If-None-Match is still the job's version.
+     * The ETag is weak: Tomcat does not compress responses carrying a strong one.
+     */
+    private static <T> ResponseEntity<T> conditional(HandoffJob job, WebRequest request, Supplier<T> body) {
+        String etag = etag(job);
+        if (request.checkNotModified(etag)) return null; // 304 already written
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache()) // always revalidate: the job moves on
+                .body(body.get());
+    }
+
+    private static String etag(HandoffJob job) {
+        return "W/\"" + job.version() + "\"";
+    }
 
+    private static HandoffJobResponse toResponse(HandoffJob job) {
         return new HandoffJobResponse(
                 job.id(),
                 job.status().name(),
@@ -45,8 +135,9 @@ public class HandoffJobsController {
     }
 
 
-    @ResponseStatus(HttpStatus.NOT_FOUND)
-    private static class JobNotFound extends RuntimeException {
-        public JobNotFound(String id) { super("Job not found: " + id); }
+    private static class JobNotFound extends ResponseStatusException {
+        private static final long serialVersionUID = 1L;
+
+        public JobNotFound(String id) { super(HttpStatus.NOT_FOUND, "Job not found: " + id); }
     }
 }
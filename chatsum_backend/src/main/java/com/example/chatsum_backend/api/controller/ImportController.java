@@ -0,0 +1,61 @@
+package com.example.chatsum_backend.api.controller;
+
+import com.example.chatsum_backend.api.dto.ImportedTranscript;
+import com.example.chatsum_backend.application.ChatGptExportImporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/import/chatgpt")
+public class ImportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportController.class);
+
+    private final ChatGptExportImporter importer;
+
+    public ImportController(ChatGptExportImporter importer) {
+        this.importer = importer;
+    }
+
+    /**
+     * Step 1: list conversations in an uploaded conversations.json so the user can pick.
+     */
+    @PostMapping(value = "/conversations", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public List<ChatGptExportImporter.ConversationRef> listConversations(@RequestParam("file") MultipartFile file)
+            throws IOException {
+        log.info("POST /api/import/chatgpt/conversations received (size={} bytes)", file.getSize());
+        try (InputStream in = file.getInputStream()) {
+            return importer.list(in);
+        }
+    }
+
+    /**
+     * Step 2: import the picked conversations as transcripts ready for /api/handoff or /api/handoff/jobs.
+     */
+    @PostMapping(value = "/transcripts", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public List<ImportedTranscript> importTranscripts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("ids") Set<String> ids
+    ) throws IOException {
+        log.info("POST /api/import/chatgpt/transcripts received (size={} bytes, selected={})",
+                file.getSize(), ids.size());
+        try (InputStream in = file.getInputStream()) {
+            return importer.importSelected(in, ref -> ids.contains(ref.id())).stream()
+                    .map(c -> new ImportedTranscript(
+                            c.id(),
+                            c.title(),
+                            c.turns().size(),
+                            ChatGptExportImporter.toTranscript(c.turns())
+                    ))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.chatsum_backend.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record HandoffBatchRequest(
+        @NotEmpty(message = "conversations must not be empty")
+        @Size(max = 1000, message = "at most 1000 conversations per batch")
+        List<@Valid Conversation> conversations,
+
+        @NotBlank(message = "targetModel must not be blank")
+        String targetModel,
+
+        boolean developerMode,
+
+        // Nightly runs: route every conversation through the OpenAI Batch API
+        boolean deferred
+) {
+    public record Conversation(
+            String conversationId,
+
+            @NotBlank(message = "transcript must not be blank")
+            String transcript
+    ) {}
+}
@@ -0,0 +1,21 @@
+package com.example.chatsum_backend.api.dto;
+
+import java.util.List;
+
+public record HandoffBatchResponse(
+        String batchId,
+        String status,
+        int total,
+        int completed,
+        int failed,
+        int progress,
+        List<Item> items
+) {
+    public record Item(
+            int index,
+            String conversationId,
+            String status,
+            String error,
+            HandoffResponse result
+    ) {}
+}
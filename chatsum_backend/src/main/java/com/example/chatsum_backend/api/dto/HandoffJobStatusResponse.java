@@ -0,0 +1,12 @@
+package com.example.chatsum_backend.api.dto;
+
+/**
+ * Job poll without the result; fetch the result (or single fields of it) once status is SUCCEEDED.
+ */
+public record HandoffJobStatusResponse(
+        String jobId,
+        String status,
+        int progress,
+        String message,
+        String error
+) {}
@@ -0,0 +1,36 @@
+package com.example.chatsum_backend.api.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Dry-run estimate of a handoff: the transcript is parsed and chunked locally, nothing is sent to OpenAI.
+ * Token counts use 1 token ~= 4 chars; outputs and latencies come from live per-stage stats once there are any.
+ */
+public record HandoffPlanResponse(
+        int turns,
+        int chunks,
+        long transcriptChars,
+        long inputTokens,
+        long outputTokens,
+        BigDecimal estCostUsd,
+        long etaMs,
+        List<Stage> stages,
+        long planningMs
+) {
+    /**
+     * @param maxOutputTokens the calls' output cap; 0 = uncapped (structured merge)
+     * @param observed false while the stage has no live stats yet (outputs and latency are defaults then)
+     */
+    public record Stage(
+            String stage,
+            String model,
+            int calls,
+            long inputTokens,
+            long outputTokens,
+            long maxOutputTokens,
+            BigDecimal estCostUsd,
+            long etaMs,
+            boolean observed
+    ) {}
+}
@@ -1,6 +1,9 @@
 package com.example.chatsum_backend.api.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+
+import java.time.Duration;
 
 public record HandoffRequest(
         @NotBlank(message = "transcript must not be blank")
@@ -9,5 +12,16 @@ public record HandoffRequest(
         @NotBlank(message = "targetModel must not be blank")
         String targetModel,
 
-        boolean developerMode
-) {}
+        boolean developerMode,
+
+        // Bulk/offline: run through the OpenAI Batch API (cheaper, can take hours)
+        boolean deferred,
+
+        // Optional: fail (or skip the seed prompt expansion) rather than run longer than this; null = no deadline
+        @Positive(message = "deadlineSeconds must be positive")
+        Integer deadlineSeconds
+) {
+    public Duration deadline() {
+        return deadlineSeconds == null ? null : Duration.ofSeconds(deadlineSeconds);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.chatsum_backend.api.dto;
+
+public record ImportedTranscript(
+        String conversationId,
+        String title,
+        int turns,
+        String transcript
+) {}
@@ -1,12 +1,18 @@
 package com.example.chatsum_backend.api.exception;
 
+import com.example.chatsum_backend.jobs.AdmissionRejectedException;
+import com.example.chatsum_backend.openai.DeadlineExceededException;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -26,6 +32,50 @@ public class GlobalExceptionHandler {
         return pd;
     }
 
+    /**
+     * 429 when the client should slow down (queue full), 503 when this node is out of capacity;
+     * both with Retry-After so clients back off instead of hammering.
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ProblemDetail> handleAdmission(AdmissionRejectedException ex) {
+        HttpStatus status = ex.overloaded() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        ProblemDetail pd = ProblemDetail.forStatus(status);
+        pd.setTitle(ex.overloaded() ? "Server overloaded" : "Too many queued jobs");
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("reason", ex.reason().name());
+        pd.setProperty("estimatedWaitSeconds", ex.retryAfterSeconds());
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.retryAfterSeconds()))
+                .body(pd);
+    }
+
+    // Any other pool that overflows (e.g. batch submission) is still an overload, not a server bug
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ProblemDetail> handleRejected(RejectedExecutionException ex) {
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        pd.setTitle("Server overloaded");
+        pd.setDetail("Too much work queued, try again later.");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(pd);
+    }
+
+    // Only reachable from the sync endpoint; jobs record it as their failure instead
+    @ExceptionHandler(DeadlineExceededException.class)
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ProblemDetail handleDeadline(DeadlineExceededException ex) {
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.GATEWAY_TIMEOUT);
+        pd.setTitle("Deadline exceeded");
+        pd.setDetail(ex.getMessage());
+        return pd;
+    }
+
+    // 404 / 409 from controllers; without this the catch-all below would turn them into 500s
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ProblemDetail> handleStatus(ResponseStatusException ex) {
+        return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(ex.getBody());
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ProblemDetail handleGeneric(Exception ex) {
@@ -0,0 +1,220 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local index of the artifacts a transcript talks about: types, files, config keys, endpoints and URLs.
+ *
+ * All kinds are matched by ONE combined pattern, so each turn is scanned once no matter how many kinds
+ * there are. The merge gets the index as ground truth for its "Key artifacts" section, and the
+ * "Paste next" candidates are picked here by recency instead of by the model.
+ */
+public final class ArtifactIndex {
+
+    public enum Kind { TYPE, FILE, CONFIG, ENDPOINT, URL }
+
+    public record Artifact(Kind kind, String name, int mentions, int firstTurn, int lastTurn, boolean declared) {}
+
+    private static final int MAX_PER_KIND = 25;
+    private static final int MAX_MUST_HAVE = 8;
+    private static final int MAX_NICE_TO_HAVE = 8;
+    private static final int RECENT_TURNS = 12;
+
+    // Alternation order matters where kinds overlap at the same position: a URL wins over the file or
+    // endpoint inside it, a file name over the bare type name it starts with.
+    private static final Pattern ARTIFACT = Pattern.compile(
+            "(?<url>https?://[^\\s<>()\\[\\]\"'`]+[^\\s<>()\\[\\]\"'`.,;:!?])"
+                    + "|\\b(?<endpoint>(?:GET|POST|PUT|PATCH|DELETE)\\s+/[\\w/{}.:-]*)"
+                    + "|(?<![\\w/.-])(?<apiPath>/api/[\\w/{}.-]*[\\w}])"
+                    + "|(?<file>\\b[\\w./-]*\\w\\.(?:java|kt|ts|tsx|js|jsx|py|go|rs|cs|xml|ya?ml|json|sql|properties|gradle|md))\\b"
+                    + "|\\b(?:class|interface|enum|record)\\s+(?<declared>[A-Z]\\w*)"
+                    + "|\\b(?<type>[A-Z][a-z0-9]+(?:[A-Z][a-z0-9]*)+)\\b"
+                    + "|\\b(?!(?:com|org|net|io|java|javax|jakarta|www)\\.)"
+                    + "(?<config>[a-z][a-z0-9-]*(?:\\.[a-z][a-z0-9-]*){2,})\\b(?![(\\w])");
+
+    public static final ArtifactIndex EMPTY = new ArtifactIndex(List.of(), 0);
+
+    private final List<Artifact> artifacts;
+    private final int turnCount;
+
+    private ArtifactIndex(List<Artifact> artifacts, int turnCount) {
+        this.artifacts = artifacts;
+        this.turnCount = turnCount;
+    }
+
+    public static ArtifactIndex build(List<ChatTurn> turns) {
+        Map<String, Acc> byKey = new LinkedHashMap<>();
+        for (int i = 0; i < turns.size(); i++) {
+            int turn = i;
+            scan(turns.get(i).content(), (kind, name, declared) -> {
+                Acc a = byKey.computeIfAbsent(kind.name() + ':' + name, k -> new Acc(kind, name, turn));
+                a.mentions++;
+                a.lastTurn = turn;
+                a.declared |= declared;
+            });
+        }
+
+        List<Artifact> out = new ArrayList<>(byKey.size());
+        for (Acc a : byKey.values()) {
+            // a bare CamelCase word seen once is as likely prose ("JavaScript") as a class
+            if (a.kind == Kind.TYPE && !a.declared && a.mentions < 2) continue;
+            out.add(new Artifact(a.kind, a.name, a.mentions, a.firstTurn, a.lastTurn, a.declared));
+        }
+        return new ArtifactIndex(List.copyOf(out), turns.size());
+    }
+
+    interface Sink {
+        void accept(Kind kind, String name, boolean declared);
+    }
+
+    /** Single pass over the text, reporting every artifact occurrence in order. */
+    static void scan(CharSequence text, Sink sink) {
+        Matcher m = ARTIFACT.matcher(text);
+        while (m.find()) {
+            String g;
+            if ((g = m.group("url")) != null) sink.accept(Kind.URL, g, false);
+            else if ((g = m.group("endpoint")) != null) sink.accept(Kind.ENDPOINT, g.replaceAll("\\s+", " "), false);
+            else if ((g = m.group("apiPath")) != null) sink.accept(Kind.ENDPOINT, g, false);
+            else if ((g = m.group("file")) != null) sink.accept(Kind.FILE, g, false);
+            else if ((g = m.group("declared")) != null) sink.accept(Kind.TYPE, g, true);
+            else if ((g = m.group("type")) != null) sink.accept(Kind.TYPE, g, false);
+            else sink.accept(Kind.CONFIG, m.group("config"), false);
+        }
+    }
+
+    public List<Artifact> artifacts() {
+        return artifacts;
+    }
+
+    public boolean isEmpty() {
+        return artifacts.isEmpty();
+    }
+
+    /**
+     * Files and declared types referenced in the last turns, most recent first: what the next chat is
+     * most likely to need pasted.
+     */
+    public List<Artifact> mustHave() {
+        int since = turnCount - RECENT_TURNS;
+        return pasteable().stream()
+                .filter(a -> a.lastTurn() >= since)
+                .limit(MAX_MUST_HAVE)
+                .toList();
+    }
+
+    /** Remaining pasteable artifacts, by how often they came up. */
+    public List<Artifact> niceToHave() {
+        List<Artifact> must = mustHave();
+        return pasteable().stream()
+                .filter(a -> !must.contains(a))
+                .sorted(Comparator.comparingInt(Artifact::mentions).reversed())
+                .limit(MAX_NICE_TO_HAVE)
+                .toList();
+    }
+
+    /** Prompt section for the merge call; "" when nothing was found. */
+    public String render() {
+        if (artifacts.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder(
+                "Artifact index (extracted locally from the full transcript; use these exact names, do not invent others):\n");
+        section(sb, "Classes", EnumSet.of(Kind.TYPE));
+        section(sb, "Files/config", EnumSet.of(Kind.FILE, Kind.CONFIG));
+        section(sb, "Endpoints/Jobs", EnumSet.of(Kind.ENDPOINT));
+        section(sb, "URLs", EnumSet.of(Kind.URL));
+
+        List<Artifact> must = mustHave();
+        List<Artifact> nice = niceToHave();
+        if (!must.isEmpty() || !nice.isEmpty()) {
+            sb.append("Paste-next candidates (use these for neededContext, in this order):\n");
+            if (!must.isEmpty()) sb.append("- Must-have: ").append(names(must)).append('\n');
+            if (!nice.isEmpty()) sb.append("- Nice-to-have: ").append(names(nice)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Deterministic "Paste next" checklist in the neededContext format, for when the merge returns none.
+     */
+    public String pasteNext() {
+        List<Artifact> must = mustHave();
+        List<Artifact> nice = niceToHave();
+        if (must.isEmpty() && nice.isEmpty()) return "";
+
+        StringBuilder sb = new StringBuilder("## 📌 Paste next (copy/paste these items)\n");
+        sb.append("### ✅ Must-have (blockers if missing)\n");
+        checklist(sb, must);
+        sb.append("\n### ⭐ Nice-to-have (helps but not required)\n");
+        checklist(sb, nice);
+        sb.append("\n### 🧷 Notes on how to paste\n")
+                .append("- Paste full files (not fragments).\n")
+                .append("- If multiple versions exist, paste ONLY the latest and say it is authoritative.\n");
+        return sb.toString();
+    }
+
+    private List<Artifact> pasteable() {
+        return artifacts.stream()
+                .filter(a -> a.kind() == Kind.FILE || (a.kind() == Kind.TYPE && a.declared()))
+                .sorted(Comparator.comparingInt(Artifact::lastTurn).reversed()
+                        .thenComparing(Comparator.comparingInt(Artifact::mentions).reversed()))
+                .toList();
+    }
+
+    private void section(StringBuilder sb, String title, Set<Kind> kinds) {
+        List<Artifact> list = artifacts.stream()
+                .filter(a -> kinds.contains(a.kind()))
+                .sorted(Comparator.comparingInt(Artifact::mentions).reversed())
+                .limit(MAX_PER_KIND)
+                .toList();
+        if (list.isEmpty()) return;
+        sb.append("- ").append(title).append(":\n");
+        for (Artifact a : list) {
+            sb.append("  - `").append(a.name()).append("` (")
+                    .append(a.mentions()).append("x, turns ").append(a.firstTurn() + 1).append('-').append(a.lastTurn() + 1)
+                    .append(a.declared() ? ", code shown" : "").append(")\n");
+        }
+    }
+
+    private static String names(List<Artifact> list) {
+        List<String> out = new ArrayList<>(list.size());
+        for (Artifact a : list) out.add("`" + a.name() + "`");
+        return String.join(", ", out);
+    }
+
+    private static void checklist(StringBuilder sb, List<Artifact> list) {
+        if (list.isEmpty()) {
+            sb.append("- (none)\n");
+            return;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            Artifact a = list.get(i);
+            sb.append(i + 1).append(") **").append(a.name()).append("** — last referenced in turn ")
+                    .append(a.lastTurn() + 1).append('\n')
+                    .append("   - Paste: full file contents\n");
+        }
+    }
+
+    private static final class Acc {
+        final Kind kind;
+        final String name;
+        final int firstTurn;
+        int lastTurn;
+        int mentions;
+        boolean declared;
+
+        Acc(Kind kind, String name, int firstTurn) {
+            this.kind = kind;
+            this.name = name;
+            this.firstTurn = firstTurn;
+        }
+    }
+}
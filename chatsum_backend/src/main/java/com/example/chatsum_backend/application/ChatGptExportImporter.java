@@ -0,0 +1,319 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Streaming importer for ChatGPT data exports (conversations.json).
+ *
+ * The export is one big JSON array of conversations, each with a tree-shaped "mapping"
+ * (node id -> {message, parent, children}). We walk it token by token so a multi-hundred-MB
+ * export never becomes a tree model: only the mapping of the conversation currently being
+ * read is held (as compact nodes), and conversations that are not selected are dropped as
+ * soon as their object ends.
+ *
+ * The active branch is current_node -> parent -> ... -> root, reversed.
+ */
+@Component
+public class ChatGptExportImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatGptExportImporter.class);
+
+    private final ObjectMapper om;
+
+    public ChatGptExportImporter(ObjectMapper om) {
+        this.om = om;
+    }
+
+    /**
+     * Lists conversations in the export without materializing any messages.
+     * Mappings are skipped at the token level, so this is cheap even for huge files.
+     */
+    public List<ConversationRef> list(InputStream in) {
+        List<ConversationRef> refs = new ArrayList<>();
+        try (JsonParser p = om.createParser(in)) {
+            forEachConversation(p, false, c -> refs.add(c.ref()));
+        }
+        log.info("ChatGPT export listed ({} conversation(s))", refs.size());
+        return refs;
+    }
+
+    /**
+     * Imports the selected conversations, linearizing the active branch of each into turns.
+     */
+    public List<ImportedConversation> importSelected(InputStream in, Predicate<ConversationRef> selector) {
+        List<ImportedConversation> out = new ArrayList<>();
+        try (JsonParser p = om.createParser(in)) {
+            forEachConversation(p, true, c -> {
+                if (selector.test(c.ref())) {
+                    out.add(new ImportedConversation(c.id, c.title, c.linearize()));
+                }
+            });
+        }
+        log.info("ChatGPT export imported ({} conversation(s))", out.size());
+        return out;
+    }
+
+    /**
+     * Renders turns back into the "User:/Assistant:" transcript format understood by {@link TranscriptParser},
+     * so imported conversations can go through the normal handoff endpoints.
+     */
+    public static String toTranscript(List<ChatTurn> turns) {
+        StringBuilder sb = new StringBuilder();
+        for (ChatTurn t : turns) {
+            String label = t.role() == ChatTurn.Role.ASSISTANT ? "Assistant: " : "User: ";
+            sb.append(label).append(t.content()).append("\n\n");
+        }
+        return sb.toString().trim();
+    }
+
+    // ---- streaming walk ----
+
+    private void forEachConversation(JsonParser p, boolean readMapping, Consumer<RawConversation> sink) {
+        JsonToken first = p.nextToken();
+        if (first == JsonToken.START_OBJECT) {
+            // Single conversation object (some tools export one conversation per file)
+            sink.accept(readConversation(p, readMapping));
+            return;
+        }
+        if (first != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Not a ChatGPT export: expected a JSON array of conversations");
+        }
+
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            sink.accept(readConversation(p, readMapping));
+        }
+    }
+
+    private RawConversation readConversation(JsonParser p, boolean readMapping) {
+        RawConversation c = new RawConversation();
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "id", "conversation_id" -> {
+                    if (value == JsonToken.VALUE_STRING) {
+                        if (c.id == null) c.id = p.getString();
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                case "title" -> c.title = stringOrSkip(p, value);
+                case "current_node" -> c.currentNode = stringOrSkip(p, value);
+                case "mapping" -> {
+                    if (readMapping && value == JsonToken.START_OBJECT) {
+                        readMapping(p, c);
+                    } else {
+                        c.nodeCount = countEntries(p);
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        return c;
+    }
+
+    private static String stringOrSkip(JsonParser p, JsonToken value) {
+        if (value == JsonToken.VALUE_STRING) return p.getString();
+        p.skipChildren();
+        return null;
+    }
+
+    private static int countEntries(JsonParser p) {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return 0;
+        }
+        int n = 0;
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            p.nextToken();
+            p.skipChildren();
+            n++;
+        }
+        return n;
+    }
+
+    private void readMapping(JsonParser p, RawConversation c) {
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String nodeId = p.currentName();
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            Node node = readNode(p);
+            c.nodes.put(nodeId, node);
+            // Fallback when current_node is missing: the last leaf we saw
+            if (node.leaf) c.lastLeaf = nodeId;
+        }
+        c.nodeCount = c.nodes.size();
+    }
+
+    private Node readNode(JsonParser p) {
+        Node node = new Node();
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "parent" -> node.parent = stringOrSkip(p, value);
+                case "children" -> {
+                    int children = 0;
+                    if (value == JsonToken.START_ARRAY) {
+                        while (p.nextToken() != JsonToken.END_ARRAY) {
+                            p.skipChildren();
+                            children++;
+                        }
+                    } else {
+                        p.skipChildren();
+                    }
+                    node.leaf = children == 0;
+                }
+                case "message" -> {
+                    if (value == JsonToken.START_OBJECT) readMessage(p, node);
+                }
+                default -> p.skipChildren();
+            }
+        }
+        return node;
+    }
+
+    private void readMessage(JsonParser p, Node node) {
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "author" -> node.role = readAuthorRole(p, value);
+                case "content" -> node.text = readContentText(p, value);
+                case "metadata" -> node.hidden = readHiddenFlag(p, value);
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static String readAuthorRole(JsonParser p, JsonToken value) {
+        if (value != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        String role = null;
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = p.currentName();
+            JsonToken v = p.nextToken();
+            if ("role".equals(field) && v == JsonToken.VALUE_STRING) role = p.getString();
+            else p.skipChildren();
+        }
+        return role;
+    }
+
+    private static String readContentText(JsonParser p, JsonToken value) {
+        if (value != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = p.currentName();
+            JsonToken v = p.nextToken();
+            if ("parts".equals(field) && v == JsonToken.START_ARRAY) {
+                // parts: strings for text, objects for images/attachments (skipped)
+                while ((v = p.nextToken()) != JsonToken.END_ARRAY) {
+                    if (v == JsonToken.VALUE_STRING) {
+                        if (!sb.isEmpty()) sb.append("\n");
+                        sb.append(p.getString());
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else if ("text".equals(field) && v == JsonToken.VALUE_STRING) {
+                // content_type=code / execution_output carry a single "text"
+                if (!sb.isEmpty()) sb.append("\n");
+                sb.append(p.getString());
+            } else {
+                p.skipChildren();
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean readHiddenFlag(JsonParser p, JsonToken value) {
+        if (value != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return false;
+        }
+        boolean hidden = false;
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = p.currentName();
+            JsonToken v = p.nextToken();
+            if ("is_visually_hidden_from_conversation".equals(field)) hidden = v == JsonToken.VALUE_TRUE;
+            else p.skipChildren();
+        }
+        return hidden;
+    }
+
+    // ---- compact in-memory model for ONE conversation ----
+
+    private static final class Node {
+        String parent;
+        boolean leaf = true;
+        String role;
+        String text;
+        boolean hidden;
+    }
+
+    private static final class RawConversation {
+        String id;
+        String title;
+        String currentNode;
+        String lastLeaf;
+        int nodeCount;
+        final Map<String, Node> nodes = new HashMap<>();
+
+        ConversationRef ref() {
+            return new ConversationRef(id, title, nodeCount);
+        }
+
+        List<ChatTurn> linearize() {
+            String cursor = currentNode != null && nodes.containsKey(currentNode) ? currentNode : lastLeaf;
+
+            List<ChatTurn> turns = new ArrayList<>();
+            int guard = nodes.size(); // protects against cyclic parent links in broken exports
+            while (cursor != null && guard-- >= 0) {
+                Node n = nodes.get(cursor);
+                if (n == null) break;
+                ChatTurn turn = toTurn(n);
+                if (turn != null) turns.add(turn);
+                cursor = n.parent;
+            }
+            Collections.reverse(turns);
+            return turns;
+        }
+
+        private static ChatTurn toTurn(Node n) {
+            if (n.hidden || n.role == null || n.text == null) return null;
+            String content = n.text.trim();
+            if (content.isEmpty()) return null;
+            return switch (n.role) {
+                case "user" -> new ChatTurn(ChatTurn.Role.USER, content);
+                case "assistant" -> new ChatTurn(ChatTurn.Role.ASSISTANT, content);
+                default -> null; // system / tool messages are not part of the visible conversation
+            };
+        }
+    }
+
+    public record ConversationRef(String id, String title, int nodeCount) {}
+
+    public record ImportedConversation(String id, String title, List<ChatTurn> turns) {}
+}
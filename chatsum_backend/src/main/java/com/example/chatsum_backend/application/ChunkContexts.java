@@ -0,0 +1,85 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * First pass of context-carrying chunking: a cheap, local, sequential scan that gives every chunk a
+ * compact note of what came before it (entities seen so far + how the previous chunk ended).
+ * The second pass (the summary calls) still runs fully in parallel, since no chunk waits for
+ * another chunk's LLM output.
+ */
+final class ChunkContexts {
+
+    private static final int MAX_ENTITIES = 40;
+    private static final int MAX_HEADLINE_CHARS = 200;
+
+
+    /**
+     * @return one context note per chunk; "" for the first chunk (nothing came before it)
+     */
+    static List<String> build(List<List<ChatTurn>> chunks) {
+        List<String> out = new ArrayList<>(chunks.size());
+        // insertion order = recency: a re-mentioned entity moves to the end, the oldest ones fall off
+        LinkedHashSet<String> entities = new LinkedHashSet<>();
+        String headline = null;
+
+        for (List<ChatTurn> chunk : chunks) {
+            out.add(render(entities, headline));
+            for (ChatTurn t : chunk) collect(t.content(), entities);
+            headline = headline(chunk);
+        }
+        return out;
+    }
+
+    private static String render(LinkedHashSet<String> entities, String headline) {
+        if (entities.isEmpty() && headline == null) return "";
+        StringBuilder sb = new StringBuilder("Context from earlier chunks (reference only; summarize ONLY this chunk):\n");
+        if (headline != null) sb.append("- Previous chunk ended with: ").append(headline).append('\n');
+        if (!entities.isEmpty()) sb.append("- Known entities: ").append(String.join(", ", entities)).append('\n');
+        return sb.toString();
+    }
+
+    /** Same extractor as {@link ArtifactIndex}: declared types, files and endpoints. */
+    private static void collect(CharSequence text, LinkedHashSet<String> entities) {
+        ArtifactIndex.scan(text, (kind, e, declared) -> {
+            boolean keep = declared || kind == ArtifactIndex.Kind.FILE || kind == ArtifactIndex.Kind.ENDPOINT;
+            if (!keep) return;
+            entities.remove(e);
+            entities.add(e);
+            if (entities.size() > MAX_ENTITIES) {
+                Iterator<String> oldest = entities.iterator();
+                oldest.next();
+                oldest.remove();
+            }
+        });
+    }
+
+    /** First non-blank line of the chunk's last user message (else its last turn), truncated. */
+    private static String headline(List<ChatTurn> chunk) {
+        ChatTurn pick = chunk.isEmpty() ? null : chunk.get(chunk.size() - 1);
+        for (int i = chunk.size() - 1; i >= 0; i--) {
+            if (chunk.get(i).role() == ChatTurn.Role.USER) {
+                pick = chunk.get(i);
+                break;
+            }
+        }
+        if (pick == null) return null;
+
+        CharSequence c = pick.content();
+        int start = 0;
+        while (start < c.length() && c.charAt(start) <= ' ') start++;
+        int end = Math.min(CodeFences.lineEnd(c, start), start + MAX_HEADLINE_CHARS);
+        if (start >= end) return null;
+
+        String line = c.subSequence(start, end).toString().strip();
+        String who = pick.role() == ChatTurn.Role.USER ? "user: " : pick.role().name().toLowerCase() + ": ";
+        return who + "\"" + line + (end - start == MAX_HEADLINE_CHARS ? "...\"" : "\"");
+    }
+
+    private ChunkContexts() {}
+}
@@ -4,20 +4,34 @@ package com.example.chatsum_backend.application;
 import com.example.chatsum_backend.domain.ChatTurn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
 
-@Component
-public class Chunker {
+/**
+ * Char-count chunking that only breaks between turns; a turn over the hard cap becomes its own chunk.
+ */
+public class Chunker implements ChunkingStrategy {
 
     // MVP sizing: characters. We'll switch to token budgeting later.
-    private static final int TARGET_CHUNK_CHARS = 12_000;
-    private static final int MAX_CHUNK_CHARS = 15_000;
+    public static final int DEFAULT_TARGET_CHUNK_CHARS = 12_000;
+    public static final int DEFAULT_MAX_CHUNK_CHARS = 15_000;
 
     private static final Logger log = LoggerFactory.getLogger(Chunker.class);
 
+    private final int targetChunkChars;
+    private final int maxChunkChars;
+
+    public Chunker() {
+        this(DEFAULT_TARGET_CHUNK_CHARS, DEFAULT_MAX_CHUNK_CHARS);
+    }
+
+    public Chunker(int targetChunkChars, int maxChunkChars) {
+        this.targetChunkChars = targetChunkChars;
+        this.maxChunkChars = maxChunkChars;
+    }
+
+    @Override
     public List<List<ChatTurn>> chunk(List<ChatTurn> turns) {
         log.debug("Chunking {} turn(s)", turns.size());
         List<List<ChatTurn>> chunks = new ArrayList<>();
@@ -26,14 +40,14 @@ public class Chunker {
 
         for (ChatTurn turn : turns) {
             int turnSize = turn.content().length() + 20; // small overhead
-            if (!current.isEmpty() && (currentSize + turnSize) > TARGET_CHUNK_CHARS) {
+            if (!current.isEmpty() && (currentSize + turnSize) > targetChunkChars) {
                 chunks.add(current);
                 current = new ArrayList<>();
                 currentSize = 0;
             }
 
             // hard cap: if a single turn is massive, split it
-            if (turnSize > MAX_CHUNK_CHARS) {
+            if (turnSize > maxChunkChars) {
                 // flush current first
                 if (!current.isEmpty()) chunks.add(current);
                 chunks.add(List.of(turn)); // MVP: keep as its own chunk
@@ -0,0 +1,14 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+
+import java.util.List;
+
+/**
+ * Splits parsed turns into the chunks that are summarized one call each.
+ * Selected with app.handoff.chunking (see ChunkingConfig).
+ */
+public interface ChunkingStrategy {
+
+    List<List<ChatTurn>> chunk(List<ChatTurn> turns);
+}
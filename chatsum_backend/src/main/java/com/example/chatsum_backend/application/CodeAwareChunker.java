@@ -0,0 +1,257 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import com.example.chatsum_backend.domain.CompositeText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Chunking that knows about code. Packs turns like {@link Chunker}, but a turn over the hard cap is
+ * sub-split instead of sent whole, and only at safe boundaries:
+ * - fenced code blocks and stack traces are atomic units;
+ * - a code block that alone exceeds the budget is split at top-level declarations, each piece re-fenced
+ *   and labelled with the artifact name, so no summary sees half a class without knowing which class;
+ * - prose is split at paragraph ends, and only as a last resort at line ends.
+ */
+public class CodeAwareChunker implements ChunkingStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(CodeAwareChunker.class);
+
+    private static final int TURN_OVERHEAD = 20; // same allowance as Chunker
+    private static final String CONTINUED = "[continued";
+    private static final int LABEL_OVERHEAD = 80; // "[continued ...]" line + re-opened/closed fence
+
+    private static final Pattern TRACE_LINE = Pattern.compile(
+            "\\s*(?:at\\s+\\S+\\(.*\\)|Caused by:.*|\\.\\.\\.\\s+\\d+\\s+more|[\\w.$]+(?:Exception|Error)(?::.*)?"
+                    + "|Traceback \\(most recent call last\\):|File \".*\", line \\d+.*)\\s*");
+    private static final Pattern DECLARATION_LINE = Pattern.compile(
+            " {0,4}(?:@[A-Z]\\w*|(?:public|protected|private|static|final|abstract|export|async"
+                    + "|def|fun|func|function|class|interface|enum|record)\\b).*");
+    private static final Pattern TYPE_NAME =
+            Pattern.compile("\\b(?:class|interface|enum|record)\\s+([A-Z]\\w*)");
+
+    private final int targetChars;
+    private final int maxChars;
+
+    public CodeAwareChunker() {
+        this(Chunker.DEFAULT_TARGET_CHUNK_CHARS, Chunker.DEFAULT_MAX_CHUNK_CHARS);
+    }
+
+    public CodeAwareChunker(int targetChars, int maxChars) {
+        this.targetChars = targetChars;
+        this.maxChars = maxChars;
+    }
+
+    @Override
+    public List<List<ChatTurn>> chunk(List<ChatTurn> turns) {
+        log.debug("Chunking {} turn(s) (code-aware)", turns.size());
+        List<List<ChatTurn>> chunks = new ArrayList<>();
+        List<ChatTurn> current = new ArrayList<>();
+        int currentSize = 0;
+
+        for (ChatTurn turn : turns) {
+            List<ChatTurn> pieces = turn.content().length() + TURN_OVERHEAD > maxChars ? split(turn) : List.of(turn);
+            for (ChatTurn piece : pieces) {
+                int size = piece.content().length() + TURN_OVERHEAD;
+                if (!current.isEmpty() && currentSize + size > targetChars) {
+                    chunks.add(current);
+                    current = new ArrayList<>();
+                    currentSize = 0;
+                }
+                current.add(piece);
+                currentSize += size;
+            }
+        }
+
+        if (!current.isEmpty()) chunks.add(current);
+        log.info("Chunking complete ({} chunk(s))", chunks.size());
+        return chunks;
+    }
+
+    /** Sub-splits one oversized turn into parts of at most ~targetChars, each a view over the original text. */
+    private List<ChatTurn> split(ChatTurn turn) {
+        int budget = targetChars - TURN_OVERHEAD - LABEL_OVERHEAD;
+        List<CharSequence> units = units(turn.content(), budget);
+
+        List<ChatTurn> parts = new ArrayList<>();
+        List<CharSequence> acc = new ArrayList<>();
+        int accLen = 0;
+        for (CharSequence u : units) {
+            if (!acc.isEmpty() && accLen + u.length() > budget) {
+                parts.add(part(turn, acc, parts.isEmpty()));
+                acc = new ArrayList<>();
+                accLen = 0;
+            }
+            acc.add(u);
+            accLen += u.length();
+        }
+        if (!acc.isEmpty()) parts.add(part(turn, acc, parts.isEmpty()));
+        return parts;
+    }
+
+    private static ChatTurn part(ChatTurn turn, List<CharSequence> units, boolean first) {
+        List<CharSequence> seq = new ArrayList<>(units.size() + 1);
+        if (!first && !startsWith(units.get(0), CONTINUED)) seq.add(CONTINUED + "]\n"); // code pieces carry their own label
+        seq.addAll(units);
+        return new ChatTurn(turn.role(), new CompositeText(seq));
+    }
+
+    /**
+     * Contiguous units covering the whole text: code blocks, stack traces and paragraphs,
+     * with anything larger than the budget already broken down further.
+     */
+    private static List<CharSequence> units(CharSequence text, int budget) {
+        List<CharSequence> out = new ArrayList<>();
+        int n = text.length();
+        int pos = 0;
+        for (CodeFences.Block b : CodeFences.find(text)) {
+            textUnits(text, pos, b.start(), budget, out);
+            int end = b.end() < n ? b.end() + 1 : b.end(); // take the newline after the closing fence
+            codeUnits(text, b, end, budget, out);
+            pos = end;
+        }
+        textUnits(text, pos, n, budget, out);
+        return out;
+    }
+
+    private static void textUnits(CharSequence text, int from, int to, int budget, List<CharSequence> out) {
+        int unitStart = from;
+        boolean inTrace = false;
+
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = Math.min(to, CodeFences.lineEnd(text, lineStart));
+            int next = Math.min(to, lineEnd + 1);
+            boolean trace = TRACE_LINE.matcher(text.subSequence(lineStart, lineEnd)).matches();
+            boolean blank = isBlank(text, lineStart, lineEnd);
+
+            if (trace != inTrace && lineStart > unitStart && !blank) {
+                // entering or leaving a stack trace closes the current unit
+                bounded(text, unitStart, lineStart, budget, out);
+                unitStart = lineStart;
+            }
+            if (!blank) inTrace = trace;
+
+            if (blank && !inTrace) {
+                // paragraph end
+                bounded(text, unitStart, next, budget, out);
+                unitStart = next;
+            }
+            lineStart = next;
+        }
+        if (unitStart < to) bounded(text, unitStart, to, budget, out);
+    }
+
+    /**
+     * A code block that fits stays whole. Otherwise it is cut before top-level declarations (annotations
+     * included), and each piece becomes its own fenced block labelled with the artifact name.
+     */
+    private static void codeUnits(CharSequence text, CodeFences.Block b, int end, int budget, List<CharSequence> out) {
+        if (end - b.start() <= budget) {
+            out.add(text.subSequence(b.start(), end));
+            return;
+        }
+
+        int headerEnd = CodeFences.lineEnd(text, b.start());
+        String fence = text.subSequence(b.start(), headerEnd).toString().strip();
+        int bodyFrom = Math.min(end, headerEnd + 1);
+        int bodyTo = b.closed() ? lastLineStart(text, b.start(), b.end()) : end;
+
+        List<Integer> cuts = new ArrayList<>();
+        int lineStart = bodyFrom;
+        while (lineStart < bodyTo) {
+            int lineEnd = Math.min(bodyTo, CodeFences.lineEnd(text, lineStart));
+            if (lineStart > bodyFrom && DECLARATION_LINE.matcher(text.subSequence(lineStart, lineEnd)).matches()) {
+                cuts.add(lineStart);
+            }
+            lineStart = lineEnd + 1;
+        }
+        cuts.add(bodyTo);
+
+        // Greedy: pack declaration segments into pieces; a single segment that is still too big goes by lines
+        List<int[]> pieces = new ArrayList<>();
+        int pieceStart = bodyFrom;
+        int segStart = bodyFrom;
+        for (int cut : cuts) {
+            if (cut - pieceStart > budget && segStart > pieceStart) {
+                pieces.add(new int[]{pieceStart, segStart});
+                pieceStart = segStart;
+            }
+            if (cut - pieceStart > budget) {
+                byLines(text, pieceStart, cut, budget, pieces);
+                pieceStart = cut;
+            }
+            segStart = cut;
+        }
+        if (pieceStart < bodyTo) pieces.add(new int[]{pieceStart, bodyTo});
+
+        Matcher m = TYPE_NAME.matcher(text.subSequence(bodyFrom, bodyTo));
+        String name = m.find() ? m.group(1) : null;
+
+        int total = pieces.size();
+        for (int i = 0; i < total; i++) {
+            int[] p = pieces.get(i);
+            CharSequence body = text.subSequence(p[0], p[1]);
+            boolean endsWithNl = body.length() > 0 && body.charAt(body.length() - 1) == '\n';
+            String label = i == 0 ? "" : (name == null
+                    ? CONTINUED + " code block, part " + (i + 1) + "/" + total + "]\n"
+                    : CONTINUED + ": `" + name + "`, part " + (i + 1) + "/" + total + "]\n");
+            out.add(CompositeText.of(label, fence, "\n", body, endsWithNl ? "" : "\n", "```\n"));
+        }
+    }
+
+    /** Splits [from, to) into line-aligned ranges of at most budget chars (a single longer line is hard-cut). */
+    private static void bounded(CharSequence text, int from, int to, int budget, List<CharSequence> out) {
+        if (to - from <= budget) {
+            if (to > from) out.add(text.subSequence(from, to));
+            return;
+        }
+        List<int[]> ranges = new ArrayList<>();
+        byLines(text, from, to, budget, ranges);
+        for (int[] r : ranges) out.add(text.subSequence(r[0], r[1]));
+    }
+
+    private static void byLines(CharSequence text, int from, int to, int budget, List<int[]> out) {
+        int start = from;
+        int lineStart = from;
+        while (lineStart < to) {
+            int next = Math.min(to, CodeFences.lineEnd(text, lineStart) + 1);
+            if (next - start > budget && lineStart > start) {
+                out.add(new int[]{start, lineStart});
+                start = lineStart;
+            }
+            while (next - start > budget) {
+                out.add(new int[]{start, start + budget});
+                start += budget;
+            }
+            lineStart = next;
+        }
+        if (start < to) out.add(new int[]{start, to});
+    }
+
+    private static int lastLineStart(CharSequence text, int from, int end) {
+        int i = end - 1;
+        while (i > from && text.charAt(i - 1) != '\n') i--;
+        return i;
+    }
+
+    private static boolean startsWith(CharSequence text, String prefix) {
+        if (text.length() < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isBlank(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.chatsum_backend.application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds ``` fenced blocks in turn text. A fence opens on a line starting with ``` (up to three spaces
+ * of indentation, optional info string) and closes on the next such line; an unclosed fence runs to the end.
+ */
+final class CodeFences {
+
+    /**
+     * @param start  offset of the opening fence line
+     * @param end    offset just past the closing fence line (excluding its newline), or the text end
+     * @param closed whether a closing fence was found
+     */
+    record Block(int start, int end, boolean closed) {
+        int length() {
+            return end - start;
+        }
+    }
+
+    static List<Block> find(CharSequence text) {
+        List<Block> blocks = new ArrayList<>();
+        int n = text.length();
+        int open = -1;
+
+        int lineStart = 0;
+        while (lineStart < n) {
+            int lineEnd = lineEnd(text, lineStart);
+            if (isFence(text, lineStart, lineEnd)) {
+                if (open < 0) {
+                    open = lineStart;
+                } else {
+                    blocks.add(new Block(open, lineEnd, true));
+                    open = -1;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (open >= 0) blocks.add(new Block(open, n, false));
+        return blocks;
+    }
+
+    static int lineEnd(CharSequence text, int from) {
+        int n = text.length();
+        int i = from;
+        while (i < n && text.charAt(i) != '\n') i++;
+        return i;
+    }
+
+    private static boolean isFence(CharSequence text, int lineStart, int lineEnd) {
+        int i = lineStart;
+        while (i < lineEnd && i - lineStart < 3 && text.charAt(i) == ' ') i++;
+        return i + 3 <= lineEnd && text.charAt(i) == '`' && text.charAt(i + 1) == '`' && text.charAt(i + 2) == '`';
+    }
+
+    private CodeFences() {}
+}
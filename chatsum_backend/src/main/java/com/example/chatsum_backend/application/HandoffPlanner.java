@@ -0,0 +1,154 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.api.dto.HandoffPlanResponse;
+import com.example.chatsum_backend.config.HandoffProperties;
+import com.example.chatsum_backend.domain.ChatTurn;
+import com.example.chatsum_backend.openai.OpenAiClient;
+import com.example.chatsum_backend.openai.OpenAiMetrics;
+import com.example.chatsum_backend.openai.OpenAiStage;
+import com.example.chatsum_backend.openai.OpenAiUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Dry run of {@link HandoffService#generate}: the same local preparation and chunking, then every
+ * OpenAI call is sized from its actual prompt instead of being sent. Outputs and latencies come from
+ * the live per-stage stats ({@link OpenAiMetrics}), with conservative defaults until there are any.
+ */
+@Service
+public class HandoffPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(HandoffPlanner.class);
+
+    // Very rough conversion: 1 token ~= 4 chars (same as the seed budget)
+    private static final int CHARS_PER_TOKEN = 4;
+    // Until a stage has stats: calls use about half of their output cap; the (uncapped) merge about 3k tokens
+    private static final double DEFAULT_OUTPUT_SHARE = 0.5;
+    private static final long DEFAULT_MERGE_OUTPUT_TOKENS = 3_000;
+    // "Chunk i/n summary:" header and separator around each summary in the merge/seed prompts
+    private static final int SUMMARY_OVERHEAD_CHARS = 40;
+
+    private final HandoffService handoff;
+    private final OpenAiClient openAi;
+    private final OpenAiMetrics metrics;
+    private final HandoffProperties handoffProps;
+    private final int chunkParallelism;
+
+    public HandoffPlanner(
+            HandoffService handoff,
+            OpenAiClient openAi,
+            OpenAiMetrics metrics,
+            HandoffProperties handoffProps,
+            @Qualifier("chunkExecutor") Executor chunkExecutor
+    ) {
+        this.handoff = handoff;
+        this.openAi = openAi;
+        this.metrics = metrics;
+        this.handoffProps = handoffProps;
+        this.chunkParallelism = chunkExecutor instanceof ThreadPoolTaskExecutor t ? Math.max(1, t.getCorePoolSize()) : 1;
+    }
+
+    /** The estimate every caller shares, e.g. admission control sizing a transcript before it is parsed. */
+    public static long estimateTokens(long chars) {
+        return chars / CHARS_PER_TOKEN + 1;
+    }
+
+    public HandoffPlanResponse plan(String transcript, String targetModel, boolean developerMode) {
+        long t0 = System.nanoTime();
+        TargetModel target = TargetModel.fromNullable(targetModel);
+
+        List<ChatTurn> turns = handoff.prepareTurns(transcript);
+        List<List<ChatTurn>> chunks = handoff.chunk(turns);
+        int n = chunks.size();
+
+        // 1) Chunk calls: prompts are known exactly
+        List<String> contexts = handoff.chunkContexts(chunks);
+        long chunkInChars = 0;
+        for (int i = 0; i < n; i++) {
+            chunkInChars += HandoffPrompts.CHUNK_INSTRUCTIONS.length()
+                    + handoff.chunkUser(i + 1, n, contexts.get(i), chunks.get(i)).length();
+        }
+        int chunkCap = handoff.chunkSummaryMaxOutputTokens();
+        long chunkOut = outputPerCall(OpenAiStage.CHUNK, (long) (chunkCap * DEFAULT_OUTPUT_SHARE));
+        long waves = (n + chunkParallelism - 1) / chunkParallelism;
+        HandoffPlanResponse.Stage chunk = stage(OpenAiStage.CHUNK, n, chunkInChars, chunkOut, chunkCap, waves);
+
+        // 2) Merge: the chunk summaries it will see are estimated from the chunk outputs
+        long summariesChars = n * (chunkOut * CHARS_PER_TOKEN + SUMMARY_OVERHEAD_CHARS);
+        long mergeInChars = HandoffPrompts.mergeInstructions(developerMode).length()
+                + HandoffPrompts.mergeUser(List.of(), handoff.artifactIndex(turns).render()).length()
+                + summariesChars;
+        long mergeOut = outputPerCall(OpenAiStage.MERGE, DEFAULT_MERGE_OUTPUT_TOKENS);
+        HandoffPlanResponse.Stage merge = stage(OpenAiStage.MERGE, 1, mergeInChars, mergeOut, 0, 1);
+
+        // 3) Seed prompt: the best-ranked summaries within the seed summary budget, plus the merged
+        //    handoff unless speculative
+        HandoffService.SeedBudget budget = handoff.seedBudget(target, developerMode);
+        boolean speculative = handoffProps.speculativeSeed();
+        int seedSummaryBudget = handoffProps.seedSummaryTokenBudget();
+        long rankedChars = seedSummaryBudget > 0
+                ? Math.min(summariesChars, (long) seedSummaryBudget * CHARS_PER_TOKEN)
+                : summariesChars;
+        long seedInChars = HandoffPrompts.seedInstructions(developerMode).length() + (speculative
+                ? HandoffPrompts.speculativeSeedUser(budget.safeChars(), developerMode, List.of()).length() + rankedChars
+                : HandoffPrompts.seedUser(budget.safeChars(), "", "", "", developerMode, List.of()).length()
+                        + mergeOut * CHARS_PER_TOKEN + rankedChars);
+        long seedOut = outputPerCall(OpenAiStage.SEED, (long) (budget.maxOutTokens() * DEFAULT_OUTPUT_SHARE));
+        HandoffPlanResponse.Stage seed = stage(OpenAiStage.SEED, 1, seedInChars, seedOut, budget.maxOutTokens(), 1);
+
+        List<HandoffPlanResponse.Stage> stages = List.of(chunk, merge, seed);
+        long etaMs = chunk.etaMs() + (speculative ? Math.max(merge.etaMs(), seed.etaMs()) : merge.etaMs() + seed.etaMs());
+        long planningMs = (System.nanoTime() - t0) / 1_000_000;
+
+        HandoffPlanResponse plan = new HandoffPlanResponse(
+                turns.size(),
+                n,
+                transcript.length(),
+                stages.stream().mapToLong(HandoffPlanResponse.Stage::inputTokens).sum(),
+                stages.stream().mapToLong(HandoffPlanResponse.Stage::outputTokens).sum(),
+                stages.stream().map(HandoffPlanResponse.Stage::estCostUsd).reduce(BigDecimal.ZERO, BigDecimal::add),
+                etaMs,
+                stages,
+                planningMs
+        );
+        log.info("handoff.plan turns={} chunks={} inputTokens={} outputTokens={} estCostUsd={} etaMs={} planningMs={}",
+                plan.turns(), plan.chunks(), plan.inputTokens(), plan.outputTokens(), plan.estCostUsd(), etaMs, planningMs);
+        return plan;
+    }
+
+    /**
+     * @param waves sequential rounds of calls (chunk calls run chunkParallelism at a time)
+     */
+    private HandoffPlanResponse.Stage stage(
+            OpenAiStage stage, int calls, long inputChars, long outputPerCall, long maxOutputTokens, long waves) {
+        OpenAiMetrics.StageSnapshot stats = metrics.snapshot(stage);
+        boolean observed = stats.calls() > 0;
+        String model = openAi.modelFor(stage);
+
+        long in = estimateTokens(inputChars);
+        long out = outputPerCall * calls;
+        // the static instructions prefix is usually a prompt-cache hit; bill what the stage has been seeing
+        long cached = observed ? (long) (in * stats.cacheHitRatio()) : 0;
+        BigDecimal cost = calls == 0 ? BigDecimal.ZERO
+                : openAi.estimateCostUsd(model, new OpenAiUsage((int) in, (int) cached, (int) out));
+
+        long latencyMs = stats.p50LatencyMs() > 0 ? stats.p50LatencyMs()
+                : stats.avgLatencyMs() > 0 ? stats.avgLatencyMs()
+                : openAi.expectedLatencyMs(stage);
+
+        return new HandoffPlanResponse.Stage(
+                stage.key, model, calls, in, out, maxOutputTokens, cost, calls == 0 ? 0 : waves * latencyMs, observed);
+    }
+
+    private long outputPerCall(OpenAiStage stage, long fallback) {
+        OpenAiMetrics.StageSnapshot stats = metrics.snapshot(stage);
+        return stats.calls() > 0 ? stats.avgOutputTokensPerCall() : fallback;
+    }
+}
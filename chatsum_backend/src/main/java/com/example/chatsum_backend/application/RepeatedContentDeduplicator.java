@@ -0,0 +1,278 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import com.example.chatsum_backend.domain.CompositeText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pre-summarization pass that drops superseded copies of repeated content.
+ *
+ * Developer transcripts paste the same file again and again while it evolves; the merge prompt already
+ * treats the LAST version as authoritative, so earlier near-duplicates are only paid-for noise.
+ * Fenced code blocks and long code-free turns (re-pasted logs, repeated messages) are compared by MinHash
+ * over their (trimmed, non-blank) lines; an earlier one that is near-identical to a later one is replaced
+ * with a one-line reference.
+ *
+ * Candidate pairs come from LSH banding, so the pass stays linear-ish on transcripts with many blocks.
+ */
+@Component
+public class RepeatedContentDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(RepeatedContentDeduplicator.class);
+
+    private static final int MIN_BLOCK_CHARS = 300;
+    private static final int MIN_TURN_CHARS = 1_500;
+    private static final int MIN_DISTINCT_LINES = 3;
+
+    // 16 bands x 4 rows: a pair at Jaccard 0.8 becomes a candidate with p ~ 0.9998
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int NUM_HASHES = BANDS * ROWS;
+    private static final double MIN_SIMILARITY = 0.8;
+
+    private static final long[] SEEDS = seeds(NUM_HASHES);
+
+    private static final Pattern DECLARATION =
+            Pattern.compile("\\b(?:class|interface|enum|record)\\s+([A-Z]\\w*)");
+    private static final Pattern FILE_NAME =
+            Pattern.compile("([\\w./-]+\\.(?:java|kt|ts|tsx|js|jsx|py|go|rs|cs|xml|ya?ml|json|sql|properties|gradle))\\b");
+
+    private static final String TURN_REFERENCE = "[message omitted: repeated later in the conversation]";
+
+    public record Result(List<ChatTurn> turns, int turnsReplaced, int blocksReplaced, int charsSaved) {
+        /** Same 1 token ~= 4 chars rule as the seed budget. */
+        public int estTokensSaved() {
+            return charsSaved / 4;
+        }
+    }
+
+    private enum Kind { TURN, BLOCK }
+
+    private record Candidate(Kind kind, int turn, int start, int end, String name, long[] signature) {}
+
+    public Result dedup(List<ChatTurn> turns) {
+        List<Candidate> candidates = candidates(turns);
+        if (candidates.size() < 2) return new Result(turns, 0, 0, 0);
+
+        // index of the later candidate each superseded one points to
+        int[] supersededBy = supersededBy(candidates);
+
+        boolean[] turnGone = new boolean[turns.size()];
+        Map<Integer, List<Candidate>> blocksByTurn = new HashMap<>();
+        for (int k = 0; k < candidates.size(); k++) {
+            if (supersededBy[k] < 0) continue;
+            Candidate c = candidates.get(k);
+            if (c.kind() == Kind.TURN) turnGone[c.turn()] = true;
+            else blocksByTurn.computeIfAbsent(c.turn(), t -> new ArrayList<>()).add(withLaterName(c, candidates.get(supersededBy[k])));
+        }
+
+        List<ChatTurn> out = new ArrayList<>(turns.size());
+        int turnsReplaced = 0;
+        int blocksReplaced = 0;
+        int charsSaved = 0;
+
+        for (int i = 0; i < turns.size(); i++) {
+            ChatTurn t = turns.get(i);
+            if (turnGone[i]) {
+                out.add(new ChatTurn(t.role(), TURN_REFERENCE));
+                turnsReplaced++;
+                charsSaved += t.content().length() - TURN_REFERENCE.length();
+                continue;
+            }
+            List<Candidate> blocks = blocksByTurn.get(i);
+            if (blocks == null) {
+                out.add(t);
+                continue;
+            }
+
+            // Blocks were collected in text order; splice references between views of the kept text
+            CharSequence content = t.content();
+            List<CharSequence> parts = new ArrayList<>(blocks.size() * 2 + 1);
+            int pos = 0;
+            for (Candidate b : blocks) {
+                String ref = blockReference(b.name());
+                parts.add(content.subSequence(pos, b.start()));
+                parts.add(ref);
+                pos = b.end();
+                blocksReplaced++;
+                charsSaved += (b.end() - b.start()) - ref.length();
+            }
+            parts.add(content.subSequence(pos, content.length()));
+            out.add(new ChatTurn(t.role(), new CompositeText(parts)));
+        }
+
+        log.info("Dedup complete (turnsReplaced={} blocksReplaced={} charsSaved={} estTokensSaved={})",
+                turnsReplaced, blocksReplaced, charsSaved, charsSaved / 4);
+        return new Result(out, turnsReplaced, blocksReplaced, charsSaved);
+    }
+
+    private static List<Candidate> candidates(List<ChatTurn> turns) {
+        List<Candidate> out = new ArrayList<>();
+        for (int i = 0; i < turns.size(); i++) {
+            CharSequence content = turns.get(i).content();
+            List<CodeFences.Block> blocks = CodeFences.find(content);
+
+            // Whole turns only when they carry no code: a turn with code keeps its prose, its blocks are handled below
+            if (blocks.isEmpty() && content.length() >= MIN_TURN_CHARS) {
+                long[] sig = signature(content, 0, content.length());
+                if (sig != null) out.add(new Candidate(Kind.TURN, i, 0, content.length(), null, sig));
+            }
+
+            for (CodeFences.Block b : blocks) {
+                if (b.length() < MIN_BLOCK_CHARS) continue;
+                long[] sig = signature(content, b.start(), b.end());
+                if (sig != null) {
+                    out.add(new Candidate(Kind.BLOCK, i, b.start(), b.end(), artifactName(content, b), sig));
+                }
+            }
+        }
+        return out;
+    }
+
+    private static int[] supersededBy(List<Candidate> candidates) {
+        int n = candidates.size();
+        int[] later = new int[n];
+        Arrays.fill(later, -1);
+
+        // LSH: candidates sharing any band bucket are compared; keep the LAST similar one
+        Map<Long, List<Integer>> buckets = new HashMap<>();
+        for (int k = 0; k < n; k++) {
+            long[] sig = candidates.get(k).signature();
+            for (int band = 0; band < BANDS; band++) {
+                buckets.computeIfAbsent(bandKey(sig, band), key -> new ArrayList<>()).add(k);
+            }
+        }
+        for (List<Integer> bucket : buckets.values()) {
+            for (int x = 0; x < bucket.size(); x++) {
+                int k = bucket.get(x);
+                for (int y = bucket.size() - 1; y > x; y--) {
+                    int m = bucket.get(y);
+                    if (m <= later[k]) break; // bucket is in candidate order; already have a later match
+                    if (sameArtifact(candidates.get(k), candidates.get(m))) {
+                        later[k] = m;
+                        break;
+                    }
+                }
+            }
+        }
+        return later;
+    }
+
+    private static boolean sameArtifact(Candidate a, Candidate b) {
+        if (a.kind() != b.kind()) return false;
+        if (a.name() != null && b.name() != null && !a.name().equals(b.name())) return false;
+        return similarity(a.signature(), b.signature()) >= MIN_SIMILARITY;
+    }
+
+    private static Candidate withLaterName(Candidate c, Candidate later) {
+        String name = later.name() != null ? later.name() : c.name();
+        return Objects.equals(name, c.name()) ? c : new Candidate(c.kind(), c.turn(), c.start(), c.end(), name, c.signature());
+    }
+
+    private static String blockReference(String name) {
+        return name == null
+                ? "[code block omitted: an identical or newer version appears later in the conversation]"
+                : "[earlier version of `" + name + "` omitted: a newer version appears later in the conversation]";
+    }
+
+    /**
+     * Declared type name, else a file name in the fence info string or the first lines of the block.
+     */
+    private static String artifactName(CharSequence content, CodeFences.Block b) {
+        CharSequence block = content.subSequence(b.start(), b.end());
+        Matcher d = DECLARATION.matcher(block);
+        if (d.find()) return d.group(1);
+
+        int headEnd = b.start();
+        for (int line = 0; line < 3 && headEnd < b.end(); line++) {
+            headEnd = Math.min(b.end(), CodeFences.lineEnd(content, headEnd) + 1);
+        }
+        Matcher f = FILE_NAME.matcher(content.subSequence(b.start(), headEnd));
+        return f.find() ? f.group(1) : null;
+    }
+
+    // ---- MinHash ----
+
+    /**
+     * MinHash over the set of trimmed, non-blank lines (fence lines excluded); null if too few lines to judge.
+     */
+    private static long[] signature(CharSequence text, int from, int to) {
+        long[] sig = new long[NUM_HASHES];
+        Arrays.fill(sig, Long.MAX_VALUE);
+        Set<Long> seen = new HashSet<>();
+
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = Math.min(to, CodeFences.lineEnd(text, lineStart));
+            int a = lineStart;
+            int b = lineEnd;
+            while (a < b && text.charAt(a) <= ' ') a++;
+            while (b > a && text.charAt(b - 1) <= ' ') b--;
+
+            if (a < b && !(b - a >= 3 && text.charAt(a) == '`' && text.charAt(a + 1) == '`' && text.charAt(a + 2) == '`')) {
+                long h = fnv1a(text, a, b);
+                if (seen.add(h)) {
+                    for (int j = 0; j < NUM_HASHES; j++) {
+                        long v = mix(h ^ SEEDS[j]);
+                        if (v < sig[j]) sig[j] = v;
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return seen.size() < MIN_DISTINCT_LINES ? null : sig;
+    }
+
+    private static double similarity(long[] a, long[] b) {
+        int same = 0;
+        for (int j = 0; j < NUM_HASHES; j++) {
+            if (a[j] == b[j]) same++;
+        }
+        return same / (double) NUM_HASHES;
+    }
+
+    private static long bandKey(long[] sig, int band) {
+        long h = band;
+        for (int r = 0; r < ROWS; r++) h = mix(h * 31 + sig[band * ROWS + r]);
+        return h;
+    }
+
+    private static long fnv1a(CharSequence s, int from, int to) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** splitmix64 finalizer */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long[] seeds(int n) {
+        long[] s = new long[n];
+        long x = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < n; i++) {
+            x += 0x9E3779B97F4A7C15L;
+            s[i] = mix(x);
+        }
+        return s;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.chatsum_backend.application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local BM25 ranking of chunk summaries against the merged handoff and the artifact names, so the seed
+ * prompt call gets only the summaries most relevant to the final state instead of all of them.
+ * Its input then stays about the size of the budget however long the transcript is.
+ */
+final class SummaryRanker {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Artifact names are what the next chat has to get exactly right
+    private static final double ENTITY_WEIGHT = 2.0;
+
+    private static final Pattern TERM = Pattern.compile("[\\p{L}\\p{N}_]{2,}");
+    private static final Set<String> STOPWORDS = Set.of(
+            "the", "and", "for", "with", "that", "this", "from", "are", "was", "were", "but", "not", "you",
+            "your", "into", "has", "have", "had", "will", "can", "should", "then", "than", "when", "what",
+            "which", "who", "how", "all", "any", "its", "our", "they", "them", "there", "their", "also",
+            "use", "used", "using", "via", "per", "chunk", "summary", "user", "assistant"
+    );
+
+    /**
+     * @param tokenBudget estimated tokens the selected summaries may take; 0 = no limit
+     * @return the selected summaries in their original (chronological) order; the last one is always kept
+     *         if it fits, since later chunks override earlier ones
+     */
+    static List<String> select(List<String> summaries, String query, List<String> entities, int tokenBudget) {
+        if (tokenBudget <= 0 || summaries.isEmpty() || tokens(summaries) <= tokenBudget) return summaries;
+
+        int n = summaries.size();
+        List<Map<String, Integer>> tf = new ArrayList<>(n);
+        Map<String, Integer> df = new HashMap<>();
+        long totalLength = 0;
+        for (String s : summaries) {
+            Map<String, Integer> counts = terms(s);
+            tf.add(counts);
+            counts.keySet().forEach(t -> df.merge(t, 1, Integer::sum));
+            totalLength += counts.values().stream().mapToInt(Integer::intValue).sum();
+        }
+        double avgLength = Math.max(1.0, (double) totalLength / n);
+
+        Map<String, Double> queryWeights = new HashMap<>();
+        terms(query).keySet().forEach(t -> queryWeights.put(t, 1.0));
+        for (String e : entities) {
+            terms(e).keySet().forEach(t -> queryWeights.put(t, ENTITY_WEIGHT));
+        }
+
+        double[] scores = new double[n];
+        for (int i = 0; i < n; i++) {
+            Map<String, Integer> counts = tf.get(i);
+            int length = counts.values().stream().mapToInt(Integer::intValue).sum();
+            double score = 0;
+            for (Map.Entry<String, Double> q : queryWeights.entrySet()) {
+                Integer f = counts.get(q.getKey());
+                if (f == null) continue;
+                int d = df.get(q.getKey());
+                double idf = Math.log(1 + (n - d + 0.5) / (d + 0.5));
+                score += q.getValue() * idf * f * (K1 + 1) / (f + K1 * (1 - B + B * length / avgLength));
+            }
+            scores[i] = score;
+        }
+
+        // best first; on ties the later chunk wins (more recent)
+        Integer[] order = new Integer[n - 1];
+        for (int i = 0; i < n - 1; i++) order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> scores[i]).reversed()
+                .thenComparing(Comparator.<Integer>reverseOrder()));
+
+        boolean[] keep = new boolean[n];
+        long used = 0;
+        long last = HandoffPlanner.estimateTokens(summaries.get(n - 1).length());
+        if (last <= tokenBudget) {
+            keep[n - 1] = true;
+            used = last;
+        }
+        for (int i : order) {
+            long cost = HandoffPlanner.estimateTokens(summaries.get(i).length());
+            if (used + cost > tokenBudget) continue; // a shorter, lower-ranked one may still fit
+            keep[i] = true;
+            used += cost;
+        }
+
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) out.add(summaries.get(i));
+        }
+        return out;
+    }
+
+    private static long tokens(List<String> summaries) {
+        long sum = 0;
+        for (String s : summaries) sum += HandoffPlanner.estimateTokens(s.length());
+        return sum;
+    }
+
+    private static Map<String, Integer> terms(String text) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (text == null) return counts;
+        Matcher m = TERM.matcher(text);
+        while (m.find()) {
+            String t = m.group().toLowerCase(Locale.ROOT);
+            if (!STOPWORDS.contains(t)) counts.merge(t, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private SummaryRanker() {}
+}
@@ -1,13 +1,18 @@
 package com.example.chatsum_backend.application;
 
 
+import com.example.chatsum_backend.config.HandoffProperties;
 import com.example.chatsum_backend.domain.ChatTurn;
+import com.example.chatsum_backend.domain.TextSpan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 @Component
 public class TranscriptParser {
@@ -15,57 +20,188 @@ public class TranscriptParser {
 
     private static final Logger log = LoggerFactory.getLogger(TranscriptParser.class);
 
+    private static final String USER = "User:";
+    private static final String ASSISTANT = "Assistant:";
+
+    // Smallest segment worth a fork/join task
+    private static final int MIN_SEGMENT_CHARS = 256 * 1024;
+
+    private final int parallelMinChars;
+    private final int minSegmentChars;
+
+    /** Sequential only. */
+    public TranscriptParser() {
+        this(0, MIN_SEGMENT_CHARS);
+    }
+
+    @Autowired
+    public TranscriptParser(HandoffProperties props) {
+        this(props.parallelParseMinChars(), MIN_SEGMENT_CHARS);
+    }
+
+    /**
+     * @param parallelMinChars transcripts at least this long are parsed on the common fork/join pool; 0 = never
+     */
+    TranscriptParser(int parallelMinChars, int minSegmentChars) {
+        this.parallelMinChars = parallelMinChars;
+        this.minSegmentChars = Math.max(1, minSegmentChars);
+    }
+
 
     /**
      * MVP parser:
      * - If transcript contains lines starting with "User:" / "Assistant:", split on those.
      * - Otherwise treat whole text as UNKNOWN.
      *
-     * This will be upgraded later for ChatGPT export JSON ingestion.
+     * Turn contents are {@link TextSpan} views into the transcript, not copies. The text is the same as
+     * the original line-by-line parser produced (each turn trimmed, the marker line trimmed on its own);
+     * only a marker line with trailing whitespace followed by more lines needs a real copy.
+     *
+     * Large transcripts are cut at marker lines and the pieces parsed on the fork/join pool; the turns
+     * are the same as from a sequential parse.
+     *
+     * ChatGPT export JSON (conversations.json) is handled by {@link ChatGptExportImporter}.
      */
     public List<ChatTurn> parse(String transcript) {
 
         log.debug("Parsing transcript ({} chars)", transcript.length());
-        String t = transcript.trim();
-        if (t.isEmpty()) return List.of();
+        int from = 0;
+        int to = transcript.length();
+        while (from < to && transcript.charAt(from) <= ' ') from++;
+        while (to > from && transcript.charAt(to - 1) <= ' ') to--;
+        if (from == to) return List.of();
+
+        if (!hasMarkers(transcript, from, to)) {
+            return List.of(new ChatTurn(ChatTurn.Role.UNKNOWN, new TextSpan(transcript, from, to)));
+        }
 
-        boolean hasMarkers = t.contains("\nUser:") || t.startsWith("User:")
-                || t.contains("\nAssistant:") || t.startsWith("Assistant:");
+        long t0 = System.nanoTime();
+        boolean parallel = parallelMinChars > 0 && to - from >= parallelMinChars;
+        List<ChatTurn> turns = parallel
+                ? ForkJoinPool.commonPool().invoke(new ParseTask(transcript, from, to, segmentChars(to - from)))
+                : parseRange(transcript, from, to);
 
-        if (!hasMarkers) {
-            return List.of(new ChatTurn(ChatTurn.Role.UNKNOWN, t));
-        }
+        log.info("Transcript parsing complete ({} turns, {} ms{})",
+                turns.size(), (System.nanoTime() - t0) / 1_000_000, parallel ? ", parallel" : "");
+        return turns;
+    }
+
+    /** About four segments per worker, so a slow segment does not hold up the join. */
+    private int segmentChars(int length) {
+        return Math.max(minSegmentChars, length / (4 * ForkJoinPool.getCommonPoolParallelism()));
+    }
 
+    /**
+     * Turns of transcript[from, to). from is the transcript start or a marker line, to is the transcript
+     * end or a marker line, so ranges cut at marker lines parse to exactly the turns of the whole.
+     */
+    private static List<ChatTurn> parseRange(String transcript, int from, int to) {
         List<ChatTurn> turns = new ArrayList<>();
         ChatTurn.Role currentRole = ChatTurn.Role.UNKNOWN;
-        StringBuilder buf = new StringBuilder();
-
-        String[] lines = t.split("\n");
-        for (String line : lines) {
-            if (line.startsWith("User:")) {
-                flush(turns, currentRole, buf);
-                currentRole = ChatTurn.Role.USER;
-                buf.append(line.substring("User:".length()).trim()).append("\n");
-            } else if (line.startsWith("Assistant:")) {
-                flush(turns, currentRole, buf);
-                currentRole = ChatTurn.Role.ASSISTANT;
-                buf.append(line.substring("Assistant:".length()).trim()).append("\n");
-            } else {
-                buf.append(line).append("\n");
+        int turnStart = from;
+        boolean markerTurn = false;
+
+        int lineStart = from;
+        while (true) {
+            ChatTurn.Role marker = markerAt(transcript, lineStart);
+            if (marker != null) {
+                flush(turns, currentRole, transcript, turnStart, lineStart, markerTurn);
+                currentRole = marker;
+                turnStart = lineStart + markerLength(marker);
+                markerTurn = true;
             }
+            int nl = transcript.indexOf('\n', lineStart);
+            // the next line starts at or past `to`: it belongs to the next range
+            if (nl < 0 || nl + 1 >= to) break;
+            lineStart = nl + 1;
         }
-        flush(turns, currentRole, buf);
-
-        log.info("Transcript parsing complete ({} turns)", turns.size());
+        flush(turns, currentRole, transcript, turnStart, to, markerTurn);
         return turns;
     }
 
-    private void flush(List<ChatTurn> turns, ChatTurn.Role role, StringBuilder buf) {
-        String content = buf.toString().trim();
-        if (!content.isEmpty()) {
-            turns.add(new ChatTurn(role, content));
+    /**
+     * Halves the range at the first marker line after its middle until segments are small enough,
+     * then parses the halves concurrently and concatenates them in order.
+     */
+    private static final class ParseTask extends RecursiveTask<List<ChatTurn>> {
+        private static final long serialVersionUID = 1L;
+
+        private final String transcript;
+        private final int from;
+        private final int to;
+        private final int segmentChars;
+
+        ParseTask(String transcript, int from, int to, int segmentChars) {
+            this.transcript = transcript;
+            this.from = from;
+            this.to = to;
+            this.segmentChars = segmentChars;
+        }
+
+        @Override
+        protected List<ChatTurn> compute() {
+            int cut = to - from > segmentChars ? nextMarkerLine(transcript, from + (to - from) / 2, to) : -1;
+            if (cut < 0) return parseRange(transcript, from, to);
+
+            ParseTask head = new ParseTask(transcript, from, cut, segmentChars);
+            head.fork();
+            List<ChatTurn> tail = new ParseTask(transcript, cut, to, segmentChars).compute();
+            List<ChatTurn> turns = head.join();
+            if (turns.isEmpty()) return tail;
+            List<ChatTurn> out = new ArrayList<>(turns.size() + tail.size());
+            out.addAll(turns);
+            out.addAll(tail);
+            return out;
         }
-        buf.setLength(0);
     }
-}
 
+    /** Start of the first marker line after position i and before to; -1 if there is none. */
+    private static int nextMarkerLine(String s, int i, int to) {
+        while (true) {
+            int nl = s.indexOf('\n', i);
+            if (nl < 0 || nl + 1 >= to) return -1;
+            if (markerAt(s, nl + 1) != null) return nl + 1;
+            i = nl + 1;
+        }
+    }
+
+    private static boolean hasMarkers(String s, int from, int to) {
+        return s.startsWith(USER, from) || s.startsWith(ASSISTANT, from)
+                || containsLineStart(s, "\n" + USER, from, to) || containsLineStart(s, "\n" + ASSISTANT, from, to);
+    }
+
+    private static boolean containsLineStart(String s, String needle, int from, int to) {
+        int i = s.indexOf(needle, from);
+        return i >= 0 && i + needle.length() <= to;
+    }
+
+    private static ChatTurn.Role markerAt(String s, int lineStart) {
+        if (s.startsWith(USER, lineStart)) return ChatTurn.Role.USER;
+        if (s.startsWith(ASSISTANT, lineStart)) return ChatTurn.Role.ASSISTANT;
+        return null;
+    }
+
+    private static int markerLength(ChatTurn.Role role) {
+        return role == ChatTurn.Role.USER ? USER.length() : ASSISTANT.length();
+    }
+
+    private static void flush(List<ChatTurn> turns, ChatTurn.Role role, String s, int start, int end, boolean markerTurn) {
+        int a = start;
+        int b = end;
+        while (a < b && s.charAt(a) <= ' ') a++;
+        while (b > a && s.charAt(b - 1) <= ' ') b--;
+        if (a == b) return;
+
+        if (markerTurn) {
+            // "User: text   \nmore": the marker line was trimmed on its own, so its trailing whitespace is dropped
+            int lineEnd = s.indexOf('\n', start);
+            if (lineEnd >= 0 && lineEnd < b && a < lineEnd && s.charAt(lineEnd - 1) <= ' ') {
+                int e = lineEnd;
+                while (s.charAt(e - 1) <= ' ') e--;
+                turns.add(new ChatTurn(role, s.substring(a, e) + s.substring(lineEnd, b)));
+                return;
+            }
+        }
+        turns.add(new ChatTurn(role, new TextSpan(s, a, b)));
+    }
+}
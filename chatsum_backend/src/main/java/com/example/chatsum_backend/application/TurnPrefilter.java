@@ -0,0 +1,216 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import com.example.chatsum_backend.domain.CompositeText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Local, CPU-only extractive pre-filter between parsing and chunking.
+ *
+ * Pure acknowledgements ("thanks", "ok try this") are always dropped. When the transcript is still over the
+ * token budget, turns are scored on cheap features (length, code, identifiers not seen before, TF-IDF
+ * novelty, near-repeats of the previous turns) and the lowest-scoring ones are compressed to their first
+ * and last line, or dropped, until it fits. The opening user turn and the most recent turns are never touched:
+ * they carry the goal and the current state.
+ *
+ * Tokenizing and scoring run as parallel streams once the transcript is large enough to pay for it.
+ */
+@Component
+public class TurnPrefilter {
+
+    private static final Logger log = LoggerFactory.getLogger(TurnPrefilter.class);
+
+    private static final int PARALLEL_MIN_TURNS = 1_000;
+    private static final int KEEP_LAST_TURNS = 6;
+    private static final int MAX_ACK_CHARS = 60;
+    private static final int MIN_COMPRESS_LINES = 4;
+    private static final double DROP_BELOW_SCORE = 1.5;
+
+    private static final Pattern ACK = Pattern.compile(
+            "(?i)\\s*(?:ok(?:ay)?|k|thanks?(?: you)?|thx|ty|great|perfect|nice|cool|got it|sure"
+                    + "|sounds good|that works|it works|works now|ok try (?:this|that)|let me try|will do|done)"
+                    + "[\\s!.,:)]*(?:thanks?(?: you)?)?[\\s!.]*");
+    private static final Pattern TERM = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{2,}");
+    private static final Pattern IDENTIFIER = Pattern.compile(
+            "\\b(?:[a-z]+[A-Z]\\w*|[A-Z][a-z0-9]+[A-Z]\\w*|[a-z0-9]+_[a-z0-9_]+|[a-z][\\w-]*(?:\\.[a-z][\\w-]*){2,})\\b");
+
+    public record Result(List<ChatTurn> turns, int droppedTurns, int compressedTurns, long charsBefore, long charsAfter) {
+        /** Share of the input removed, 0..1. */
+        public double reductionRatio() {
+            return charsBefore == 0 ? 0 : 1.0 - (double) charsAfter / charsBefore;
+        }
+    }
+
+    private record Features(Set<String> terms, Set<String> identifiers, boolean code, boolean ack) {}
+
+    /**
+     * @param tokenBudget estimated input tokens (1 token ~= 4 chars) to fit into; 0 = only drop acknowledgements
+     */
+    public Result filter(List<ChatTurn> turns, int tokenBudget) {
+        int n = turns.size();
+        long before = totalChars(turns);
+        if (n == 0) return new Result(turns, 0, 0, 0, 0);
+
+        // Pass 1 (parallel): per-turn features
+        Features[] features = new Features[n];
+        stream(n).forEach(i -> features[i] = features(turns.get(i).content()));
+
+        // Document frequencies for IDF, and identifiers first seen in each turn (order-dependent, sequential)
+        Map<String, Integer> df = new HashMap<>();
+        int[] newIdentifiers = new int[n];
+        Set<String> seenIdentifiers = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            for (String t : features[i].terms()) df.merge(t, 1, Integer::sum);
+            for (String id : features[i].identifiers()) {
+                if (seenIdentifiers.add(id)) newIdentifiers[i]++;
+            }
+        }
+
+        // Pass 2 (parallel): scores
+        double[] score = new double[n];
+        stream(n).forEach(i -> score[i] = score(turns.get(i), features, i, newIdentifiers[i], df, n));
+
+        boolean[] protect = new boolean[n];
+        for (int i = Math.max(0, n - KEEP_LAST_TURNS); i < n; i++) protect[i] = true;
+        for (int i = 0; i < n; i++) {
+            if (turns.get(i).role() == ChatTurn.Role.USER) {
+                protect[i] = true;
+                break;
+            }
+        }
+
+        CharSequence[] out = new CharSequence[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = features[i].ack() && !protect[i] ? null : turns.get(i).content();
+        }
+
+        long budgetChars = tokenBudget > 0 ? tokenBudget * 4L : Long.MAX_VALUE;
+        long current = 0;
+        for (CharSequence c : out) if (c != null) current += c.length();
+
+        if (current > budgetChars) {
+            List<Integer> order = IntStream.range(0, n)
+                    .filter(i -> out[i] != null && !protect[i])
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(i -> score[i]))
+                    .toList();
+            for (int i : order) {
+                if (current <= budgetChars) break;
+                if (features[i].code()) continue; // code is the artifact itself; never trimmed here
+                CharSequence c = out[i];
+                CharSequence replacement = score[i] < DROP_BELOW_SCORE ? null : compress(c);
+                if (replacement == c) continue; // too short to compress
+                current -= c.length() - (replacement == null ? 0 : replacement.length());
+                out[i] = replacement;
+            }
+        }
+
+        List<ChatTurn> kept = new ArrayList<>(n);
+        int dropped = 0;
+        int compressed = 0;
+        for (int i = 0; i < n; i++) {
+            if (out[i] == null) {
+                dropped++;
+            } else if (out[i] != turns.get(i).content()) {
+                compressed++;
+                kept.add(new ChatTurn(turns.get(i).role(), out[i]));
+            } else {
+                kept.add(turns.get(i));
+            }
+        }
+
+        Result res = new Result(kept, dropped, compressed, before, totalChars(kept));
+        log.info("Prefilter complete (turns={} dropped={} compressed={} tokenBudget={} reduction={})",
+                n, dropped, compressed, tokenBudget, String.format("%.1f%%", res.reductionRatio() * 100));
+        return res;
+    }
+
+    private static IntStream stream(int n) {
+        IntStream s = IntStream.range(0, n);
+        return n >= PARALLEL_MIN_TURNS ? s.parallel() : s;
+    }
+
+    private static Features features(CharSequence text) {
+        Set<String> terms = new HashSet<>();
+        Matcher t = TERM.matcher(text);
+        while (t.find()) terms.add(t.group().toLowerCase());
+
+        Set<String> ids = new HashSet<>();
+        Matcher id = IDENTIFIER.matcher(text);
+        while (id.find()) ids.add(id.group());
+
+        boolean code = !CodeFences.find(text).isEmpty();
+        boolean ack = text.length() <= MAX_ACK_CHARS && ACK.matcher(text).matches();
+        return new Features(terms, ids, code, ack);
+    }
+
+    private static double score(ChatTurn turn, Features[] all, int i, int newIds, Map<String, Integer> df, int docs) {
+        Features f = all[i];
+        double s = Math.log1p(turn.content().length()) / 2;
+        if (f.code()) s += 3;
+        s += Math.log1p(newIds);
+
+        // TF-IDF novelty: mean IDF of the turn's distinct terms (rare terms = specific content)
+        if (!f.terms().isEmpty()) {
+            double idf = 0;
+            for (String term : f.terms()) idf += Math.log((double) docs / df.getOrDefault(term, 1));
+            s += idf / f.terms().size();
+        }
+
+        // Error spam: nearly the same terms as one of the two previous turns
+        for (int j = i - 1; j >= 0 && j >= i - 2; j--) {
+            if (jaccard(f.terms(), all[j].terms()) >= 0.9) {
+                s -= 3;
+                break;
+            }
+        }
+        if (f.ack()) s -= 5;
+        return s;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) return 0;
+        Set<String> small = a.size() <= b.size() ? a : b;
+        Set<String> large = small == a ? b : a;
+        int inter = 0;
+        for (String x : small) if (large.contains(x)) inter++;
+        return (double) inter / (a.size() + b.size() - inter);
+    }
+
+    /** First and last line of a prose turn, with a marker for what was cut; null if too short to bother. */
+    private static CharSequence compress(CharSequence text) {
+        int firstEnd = CodeFences.lineEnd(text, 0);
+        int lastStart = text.length();
+        while (lastStart > 0 && text.charAt(lastStart - 1) != '\n') lastStart--;
+        if (lastStart <= firstEnd) return text;
+
+        int trimmedLines = 0;
+        for (int i = firstEnd + 1; i < lastStart; i++) if (text.charAt(i) == '\n') trimmedLines++;
+        if (trimmedLines + 2 < MIN_COMPRESS_LINES) return text;
+
+        return CompositeText.of(
+                text.subSequence(0, firstEnd),
+                "\n[... " + trimmedLines + " line(s) trimmed ...]\n",
+                text.subSequence(lastStart, text.length())
+        );
+    }
+
+    private static long totalChars(List<ChatTurn> turns) {
+        long n = 0;
+        for (ChatTurn t : turns) n += t.content().length();
+        return n;
+    }
+}
@@ -19,4 +19,64 @@ public class AsyncConfig {
         ex.initialize();
         return ex;
     }
+
+    /**
+     * Shared pool for the chunk summarization calls of interactive jobs, so their total concurrent
+     * OpenAI map-stage calls stay bounded. Batch conversations have their own (batchChunkExecutor).
+     */
+    @Bean(name = "chunkExecutor")
+    public Executor chunkExecutor() {
+        ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+        ex.setCorePoolSize(8);
+        ex.setMaxPoolSize(8);
+        ex.setQueueCapacity(10_000);
+        ex.setThreadNamePrefix("chunk-");
+        ex.initialize();
+        return ex;
+    }
+
+    /**
+     * Runs the per-conversation pipelines of batch jobs. Kept separate from handoffExecutor so a
+     * nightly batch cannot hold the interactive job workers.
+     */
+    @Bean(name = "batchExecutor")
+    public Executor batchExecutor() {
+        ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+        ex.setCorePoolSize(4);
+        ex.setMaxPoolSize(4);
+        ex.setQueueCapacity(10_000);
+        ex.setThreadNamePrefix("batch-");
+        ex.initialize();
+        return ex;
+    }
+
+    /**
+     * Chunk summarization calls of batch conversations. A batch of large transcripts queues thousands of
+     * chunks; on their own pool they wait behind each other, not in front of interactive jobs' chunks.
+     */
+    @Bean(name = "batchChunkExecutor")
+    public Executor batchChunkExecutor() {
+        ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+        ex.setCorePoolSize(4);
+        ex.setMaxPoolSize(4);
+        ex.setQueueCapacity(10_000);
+        ex.setThreadNamePrefix("batch-chunk-");
+        ex.initialize();
+        return ex;
+    }
+
+    /**
+     * Speculative-seed merges, which run next to the seed call of their job. At most one per running
+     * pipeline (handoff + batch workers), so this never queues behind a chunk backlog.
+     */
+    @Bean(name = "mergeExecutor")
+    public Executor mergeExecutor() {
+        ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+        ex.setCorePoolSize(8);
+        ex.setMaxPoolSize(8);
+        ex.setQueueCapacity(50);
+        ex.setThreadNamePrefix("merge-");
+        ex.initialize();
+        return ex;
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.chatsum_backend.config;
+
+import com.example.chatsum_backend.application.Chunker;
+import com.example.chatsum_backend.application.ChunkingStrategy;
+import com.example.chatsum_backend.application.CodeAwareChunker;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ChunkingConfig {
+
+    /**
+     * app.handoff.chunking: chars (default, turn boundaries only) or code-aware
+     * (sub-splits oversized turns without cutting code blocks or stack traces).
+     */
+    @Bean
+    public ChunkingStrategy chunkingStrategy(HandoffProperties props) {
+        HandoffProperties.Chunking mode = props.chunking() == null ? HandoffProperties.Chunking.CHARS : props.chunking();
+
+        // With carried context a chunk no longer has to stand alone, so fewer, larger chunks stay coherent
+        int scale = props.contextCarrying() ? 2 : 1;
+        int target = props.chunkTargetChars() > 0 ? props.chunkTargetChars() : Chunker.DEFAULT_TARGET_CHUNK_CHARS * scale;
+        int max = props.chunkMaxChars() > 0 ? props.chunkMaxChars() : Chunker.DEFAULT_MAX_CHUNK_CHARS * scale;
+
+        return switch (mode) {
+            case CHARS -> new Chunker(target, Math.max(target, max));
+            case CODE_AWARE -> new CodeAwareChunker(target, Math.max(target, max));
+        };
+    }
+}
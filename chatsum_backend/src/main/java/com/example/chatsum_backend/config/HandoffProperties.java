@@ -0,0 +1,98 @@
+package com.example.chatsum_backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.handoff")
+public record HandoffProperties(
+        // Generate the seed prompt from chunk summaries in parallel with the merge, then patch it locally
+        boolean speculativeSeed,
+
+        // Output cap for plain-text chunk summaries
+        int chunkSummaryMaxOutputTokens,
+
+        // Replace superseded copies of repeated code blocks / long turns with references before chunking
+        boolean dedupRepeatedContent,
+
+        // Chunking strategy (see ChunkingConfig)
+        Chunking chunking,
+
+        // Give each chunk call a local note of earlier chunks (entities, previous headline); allows larger chunks
+        boolean contextCarrying,
+
+        // Chunk sizing in chars; 0 = defaults (doubled when contextCarrying is on)
+        int chunkTargetChars,
+        int chunkMaxChars,
+
+        // Drop acknowledgements and trim low-signal turns before chunking (see TurnPrefilter)
+        boolean prefilter,
+
+        // Estimated input tokens the prefilter trims down to; 0 = only drop acknowledgements
+        int prefilterTokenBudget,
+
+        // Feed a locally extracted artifact index (types, files, endpoints, config keys) into the merge
+        boolean artifactIndex,
+
+        // Job admission control (see AdmissionControl); 0 = defaults (handoff pool queue size, 2M tokens)
+        int maxQueuedJobs,
+        long maxQueuedTokens,
+
+        // Cancel jobs no client has polled for this long; 0 = never
+        int jobIdleCancelSeconds,
+
+        // Server-side timeout of the synchronous POST /api/handoff; the job is cancelled when it fires. 0 = none
+        int syncTimeoutSeconds,
+
+        // Chunk summaries given to the seed prompt call, best-ranked first (see SummaryRanker); 0 = all of them
+        int seedSummaryTokenBudget,
+
+        // Parse transcripts of at least this many chars in parallel (see TranscriptParser); 0 = always sequential
+        int parallelParseMinChars,
+
+        // Drop finished batches (and their results) this long after their last item finished; 0 = keep forever
+        int finishedBatchTtlMinutes
+) {
+    public enum Chunking { CHARS, CODE_AWARE }
+
+    /**
+     * The application.yml defaults, for code that builds the pipeline without Spring (tests, tools).
+     * Bound from application.yml itself with no environment, so the placeholders fall back to their defaults
+     * and the yml stays the only place they are written down.
+     */
+    public static HandoffProperties defaults() {
+        try {
+            List<PropertySource<?>> yml = new YamlPropertySourceLoader()
+                    .load("application.yml", new ClassPathResource("application.yml"));
+            return new Binder(ConfigurationPropertySources.from(yml), new PropertySourcesPlaceholdersResolver(yml))
+                    .bind("app.handoff", HandoffProperties.class)
+                    .get();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read application.yml", e);
+        }
+    }
+
+    public HandoffProperties withSpeculativeSeed(boolean speculativeSeed) {
+        return new HandoffProperties(
+                speculativeSeed, chunkSummaryMaxOutputTokens, dedupRepeatedContent, chunking, contextCarrying,
+                chunkTargetChars, chunkMaxChars, prefilter, prefilterTokenBudget, artifactIndex, maxQueuedJobs,
+                maxQueuedTokens, jobIdleCancelSeconds, syncTimeoutSeconds, seedSummaryTokenBudget, parallelParseMinChars,
+                finishedBatchTtlMinutes);
+    }
+
+    public HandoffProperties withSeedSummaryTokenBudget(int seedSummaryTokenBudget) {
+        return new HandoffProperties(
+                speculativeSeed, chunkSummaryMaxOutputTokens, dedupRepeatedContent, chunking, contextCarrying,
+                chunkTargetChars, chunkMaxChars, prefilter, prefilterTokenBudget, artifactIndex, maxQueuedJobs,
+                maxQueuedTokens, jobIdleCancelSeconds, syncTimeoutSeconds, seedSummaryTokenBudget, parallelParseMinChars,
+                finishedBatchTtlMinutes);
+    }
+}
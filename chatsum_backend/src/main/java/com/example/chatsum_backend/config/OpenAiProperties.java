@@ -2,13 +2,43 @@ package com.example.chatsum_backend.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "openai")
 public record OpenAiProperties(
         String apiKey,
         String model,
+        Models models,
         Pricing pricing,
-        Timeouts timeouts
+        Map<String, Pricing> modelPricing,
+        Timeouts timeouts,
+        Batch batch,
+        Hedging hedging
 ) {
-    public record Pricing(double inputPer1M, double outputPer1M) {}
+    /**
+     * Per-stage model overrides; blank means "use {@link #model()}".
+     * Chunk summaries are the bulk of tokens, so a cheaper model there pays off most.
+     */
+    public record Models(String chunk, String merge, String seed) {}
+
+    public record Pricing(double inputPer1M, double cachedInputPer1M, double outputPer1M) {}
     public record Timeouts(int connectSeconds, int requestSeconds) {}
+
+    /** Pricing for a model: its modelPricing entry if present, else the default {@link #pricing()}. */
+    public Pricing pricingFor(String modelName) {
+        if (modelPricing != null) {
+            Pricing p = modelPricing.get(modelName);
+            if (p != null) return p;
+        }
+        return pricing;
+    }
+
+    /** Deferred (Batch API) mode: how often to poll and how long to wait before giving up. */
+    public record Batch(int pollSeconds, int maxWaitMinutes, String completionWindow) {}
+
+    /**
+     * Chunk calls slower than the p95 of their size class get a duplicate request; the first answer wins.
+     * budgetRatio caps duplicates as a share of all chunk calls; minDelayMs is the earliest a duplicate goes out.
+     */
+    public record Hedging(boolean enabled, double budgetRatio, int minDelayMs) {}
 }
@@ -2,6 +2,7 @@ package com.example.chatsum_backend.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
@@ -9,6 +10,7 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 public class SchedulerConfig {
 
     @Bean
+    @Primary
     public TaskScheduler taskScheduler() {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
         scheduler.setPoolSize(2);
@@ -17,4 +19,18 @@ public class SchedulerConfig {
         scheduler.initialize();
         return scheduler;
     }
+
+    /**
+     * Polls deferred OpenAI batches (see OpenAiBatchRunner). A poll is one short HTTP call, so a couple
+     * of threads serve every waiting job, where blocking pollers would hold a job thread each for hours.
+     */
+    @Bean(name = "batchPollScheduler")
+    public TaskScheduler batchPollScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("batch-poll-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        return scheduler;
+    }
 }
@@ -1,6 +1,26 @@
 package com.example.chatsum_backend.domain;
 
-public record ChatTurn(Role role, String content) {
+/**
+ * content is usually a {@link TextSpan} into the parsed transcript, not a copy of it.
+ * Equality is by role and content characters, whatever CharSequence holds them: a turn over a
+ * TextSpan equals the same turn built from a String or a {@link CompositeText}.
+ */
+public record ChatTurn(Role role, CharSequence content) {
     public enum Role { USER, ASSISTANT, UNKNOWN }
-}
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof ChatTurn other
+                && role == other.role
+                && CharSequence.compare(content, other.content) == 0;
+    }
+
+    /** Same value as {@code content.toString().hashCode()}, without the copy. */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = 0, n = content.length(); i < n; i++) h = 31 * h + content.charAt(i);
+        return 31 * role.hashCode() + h;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.chatsum_backend.domain;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Concatenation of CharSequences without copying them: a rendered chunk is a list of
+ * role labels, separators and {@link TextSpan}s over the transcript. {@link #reader(CharSequence)}
+ * streams it part by part, so the chunk is copied once, into the request body.
+ */
+public final class CompositeText implements CharSequence {
+
+    private final CharSequence[] parts;
+    private final int[] offsets; // offsets[i] = start of parts[i]; offsets[parts.length] = length
+
+    public CompositeText(List<? extends CharSequence> parts) {
+        this.parts = parts.toArray(CharSequence[]::new);
+        this.offsets = new int[this.parts.length + 1];
+        for (int i = 0; i < this.parts.length; i++) {
+            offsets[i + 1] = offsets[i] + this.parts[i].length();
+        }
+    }
+
+    public static CompositeText of(CharSequence... parts) {
+        return new CompositeText(List.of(parts));
+    }
+
+    @Override
+    public int length() {
+        return offsets[parts.length];
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length());
+        int i = partAt(index);
+        return parts[i].charAt(index - offsets[i]);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length());
+        for (CharSequence p : parts) sb.append(p);
+        return sb.toString();
+    }
+
+    private int partAt(int index) {
+        int i = Arrays.binarySearch(offsets, index);
+        if (i < 0) return -i - 2;
+        // skip empty parts that share the same offset
+        while (i < parts.length - 1 && offsets[i + 1] == index) i++;
+        return i;
+    }
+
+    /**
+     * Reader over any CharSequence with bulk copies for String, {@link TextSpan} and {@link CompositeText}.
+     */
+    public static Reader reader(CharSequence cs) {
+        return new Reader() {
+            private int pos;
+
+            @Override
+            public int read(char[] cbuf, int off, int len) {
+                Objects.checkFromIndexSize(off, len, cbuf.length);
+                int n = Math.min(len, cs.length() - pos);
+                if (n <= 0) return len == 0 ? 0 : -1;
+                getChars(cs, pos, pos + n, cbuf, off);
+                pos += n;
+                return n;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static void getChars(CharSequence cs, int from, int to, char[] dst, int dstBegin) {
+        switch (cs) {
+            case String s -> s.getChars(from, to, dst, dstBegin);
+            case TextSpan span -> span.getChars(from, to, dst, dstBegin);
+            case CompositeText c -> c.getChars(from, to, dst, dstBegin);
+            default -> {
+                for (int i = from; i < to; i++) dst[dstBegin++] = cs.charAt(i);
+            }
+        }
+    }
+
+    private void getChars(int from, int to, char[] dst, int dstBegin) {
+        int i = partAt(from);
+        while (from < to) {
+            int partEnd = Math.min(to, offsets[i + 1]);
+            getChars(parts[i], from - offsets[i], partEnd - offsets[i], dst, dstBegin);
+            dstBegin += partEnd - from;
+            from = partEnd;
+            i++;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.chatsum_backend.domain;
+
+import java.util.Objects;
+
+/**
+ * Read-only view of source[start, end) that does not copy the characters.
+ * Turn contents point into the one transcript String instead of each holding their own copy.
+ *
+ * Like String, equality is by content; use {@link #toString()} only where a real copy is needed.
+ */
+public final class TextSpan implements CharSequence {
+
+    private final String source;
+    private final int start;
+    private final int end;
+
+    public TextSpan(String source, int start, int end) {
+        Objects.checkFromToIndex(start, end, source.length());
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length());
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public TextSpan subSequence(int from, int to) {
+        Objects.checkFromToIndex(from, to, length());
+        return new TextSpan(source, start + from, start + to);
+    }
+
+    /** Bulk copy, same contract as {@link String#getChars}. */
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        Objects.checkFromToIndex(srcBegin, srcEnd, length());
+        source.getChars(start + srcBegin, start + srcEnd, dst, dstBegin);
+    }
+
+    @Override
+    public String toString() {
+        return source.substring(start, end);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TextSpan other) || other.length() != length()) return false;
+        return source.regionMatches(start, other.source, other.start, length());
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = start; i < end; i++) h = 31 * h + source.charAt(i);
+        return h;
+    }
+}
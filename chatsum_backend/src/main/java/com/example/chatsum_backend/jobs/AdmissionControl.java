@@ -0,0 +1,163 @@
+package com.example.chatsum_backend.jobs;
+
+import com.example.chatsum_backend.application.HandoffPlanner;
+import com.example.chatsum_backend.config.HandoffProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides at submission time whether a job can be taken on, instead of letting the handoff pool's queue
+ * overflow after the job is already stored.
+ *
+ * A job is refused when too many jobs are waiting, when the estimated tokens of accepted-but-unfinished
+ * work plus this transcript exceed the cap, or when the heap has no room for this transcript's working set.
+ * Every refusal carries a Retry-After estimate from the queue depth and the recent average job duration.
+ */
+@Component
+public class AdmissionControl {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+    // Peak heap per transcript char while a job runs: request string, turn views, request bodies and
+    // HTTP buffers overlap for a while (UTF-16 worst case)
+    private static final int HEAP_BYTES_PER_CHAR = 8;
+    private static final double HEAP_RESERVE = 0.15;
+
+    private static final long DEFAULT_MAX_QUEUED_TOKENS = 2_000_000;
+    private static final double DEFAULT_JOB_SECONDS = 60;
+    private static final double EWMA_ALPHA = 0.2;
+    private static final long HEAP_RETRY_SECONDS = 5; // nothing running: only a GC away
+
+    private final int workers;
+    private final int maxQueuedJobs;
+    private final long maxQueuedTokens;
+    private final LongSupplier heapHeadroomBytes;
+
+    // guarded by this
+    private int queuedJobs;
+    private int runningJobs;
+    private long inFlightTokens;
+    private double avgJobSeconds = DEFAULT_JOB_SECONDS;
+
+    /**
+     * Admitted work; hand it back through {@link #started} then {@link #finished}/{@link #aborted}/{@link #deferred},
+     * or through {@link #cancelled} if it never starts.
+     */
+    public record Ticket(long tokens) {}
+
+    public record Snapshot(int queuedJobs, int runningJobs, long inFlightTokens, double avgJobSeconds) {}
+
+    @Autowired
+    public AdmissionControl(@Qualifier("handoffExecutor") Executor handoffExecutor, HandoffProperties props) {
+        this(
+                handoffExecutor instanceof ThreadPoolTaskExecutor t ? t.getCorePoolSize() : 1,
+                // by default refuse before the pool's own queue would reject
+                props.maxQueuedJobs() > 0 ? props.maxQueuedJobs()
+                        : handoffExecutor instanceof ThreadPoolTaskExecutor t ? t.getQueueCapacity() : 50,
+                props.maxQueuedTokens() > 0 ? props.maxQueuedTokens() : DEFAULT_MAX_QUEUED_TOKENS,
+                AdmissionControl::heapHeadroom
+        );
+    }
+
+    AdmissionControl(int workers, int maxQueuedJobs, long maxQueuedTokens, LongSupplier heapHeadroomBytes) {
+        this.workers = Math.max(1, workers);
+        this.maxQueuedJobs = maxQueuedJobs;
+        this.maxQueuedTokens = maxQueuedTokens;
+        this.heapHeadroomBytes = heapHeadroomBytes;
+    }
+
+    /**
+     * @throws AdmissionRejectedException if the job should not be accepted right now
+     */
+    public synchronized Ticket admit(int transcriptChars) {
+        long tokens = HandoffPlanner.estimateTokens(transcriptChars);
+
+        if (queuedJobs >= maxQueuedJobs) {
+            throw reject(AdmissionRejectedException.Reason.QUEUE_FULL, queueWaitSeconds(queuedJobs),
+                    "Too many queued jobs (" + queuedJobs + ")");
+        }
+        // a single oversized transcript is still accepted on an idle node
+        if (inFlightTokens > 0 && inFlightTokens + tokens > maxQueuedTokens) {
+            throw reject(AdmissionRejectedException.Reason.QUEUED_TOKENS, queueWaitSeconds(queuedJobs),
+                    "Queued work too large (~" + inFlightTokens + " tokens accepted, this job ~" + tokens + ")");
+        }
+        long neededBytes = (long) transcriptChars * HEAP_BYTES_PER_CHAR;
+        long headroom = heapHeadroomBytes.getAsLong();
+        if (neededBytes > headroom) {
+            long wait = runningJobs > 0 ? (long) Math.ceil(avgJobSeconds) : HEAP_RETRY_SECONDS;
+            throw reject(AdmissionRejectedException.Reason.HEAP, wait,
+                    "Not enough memory for this transcript right now (needs ~" + (neededBytes >> 20)
+                            + " MB, " + (Math.max(0, headroom) >> 20) + " MB free)");
+        }
+
+        queuedJobs++;
+        inFlightTokens += tokens;
+        return new Ticket(tokens);
+    }
+
+    public synchronized void started(Ticket ticket) {
+        queuedJobs--;
+        runningJobs++;
+    }
+
+    public synchronized void finished(Ticket ticket, long elapsedMs) {
+        runningJobs--;
+        inFlightTokens -= ticket.tokens();
+        avgJobSeconds = (1 - EWMA_ALPHA) * avgJobSeconds + EWMA_ALPHA * (elapsedMs / 1000.0);
+    }
+
+    /** A running job was cancelled; its duration says nothing about normal job times. */
+    public synchronized void aborted(Ticket ticket) {
+        runningJobs--;
+        inFlightTokens -= ticket.tokens();
+    }
+
+    /**
+     * A running job handed the rest of its work to the Batch API. Waiting on a batch holds no worker and
+     * little heap but may take hours, so the job stops counting here and its duration stays out of the average.
+     */
+    public synchronized void deferred(Ticket ticket) {
+        runningJobs--;
+        inFlightTokens -= ticket.tokens();
+    }
+
+    /** The job was admitted but never started (refused by the executor, or cancelled while queued). */
+    public synchronized void cancelled(Ticket ticket) {
+        queuedJobs--;
+        inFlightTokens -= ticket.tokens();
+    }
+
+    /** For when the executor refuses a job admission control let through. */
+    public synchronized AdmissionRejectedException saturated() {
+        return reject(AdmissionRejectedException.Reason.EXECUTOR_SATURATED, queueWaitSeconds(queuedJobs),
+                "Handoff workers are saturated");
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(queuedJobs, runningJobs, inFlightTokens, avgJobSeconds);
+    }
+
+    /** Jobs ahead of this one, served `workers` at a time, plus this one. */
+    private long queueWaitSeconds(int ahead) {
+        return Math.max(1, (long) Math.ceil((ahead / workers + 1) * avgJobSeconds));
+    }
+
+    private AdmissionRejectedException reject(AdmissionRejectedException.Reason reason, long retryAfter, String msg) {
+        log.warn("Job rejected (reason={} queued={} running={} inFlightTokens={} retryAfter={}s)",
+                reason, queuedJobs, runningJobs, inFlightTokens, retryAfter);
+        return new AdmissionRejectedException(reason, retryAfter, msg);
+    }
+
+    private static long heapHeadroom() {
+        Runtime rt = Runtime.getRuntime();
+        long used = rt.totalMemory() - rt.freeMemory();
+        return rt.maxMemory() - used - (long) (rt.maxMemory() * HEAP_RESERVE);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.chatsum_backend.jobs;
+
+/**
+ * Thrown when a job is refused at submission time; nothing has been stored or queued for it.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        // Too many jobs waiting, or too many tokens of work already accepted: the client should back off (429)
+        QUEUE_FULL,
+        QUEUED_TOKENS,
+        // This node cannot take the transcript right now at all (503)
+        HEAP,
+        EXECUTOR_SATURATED
+    }
+
+    private final Reason reason;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(Reason reason, long retryAfterSeconds, String message) {
+        super(message);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Reason reason() { return reason; }
+
+    /** Estimated wait until a retry has a fair chance of being admitted. */
+    public long retryAfterSeconds() { return retryAfterSeconds; }
+
+    public boolean overloaded() {
+        return reason == Reason.HEAP || reason == Reason.EXECUTOR_SATURATED;
+    }
+}
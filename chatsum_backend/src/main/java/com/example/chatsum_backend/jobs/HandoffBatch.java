@@ -0,0 +1,156 @@
+package com.example.chatsum_backend.jobs;
+
+import com.example.chatsum_backend.api.dto.HandoffResponse;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A batch of conversations handed off together. Each conversation is an {@link Item} with its own
+ * status/result; progress is aggregated over items. Listeners get every item as soon as it finishes.
+ */
+public class HandoffBatch {
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, PARTIALLY_FAILED, FAILED }
+
+    private final String id;
+    private final List<Item> items;
+    private final List<Consumer<Item>> listeners = new CopyOnWriteArrayList<>();
+
+    private final Instant createdAt = Instant.now();
+    private volatile Instant updatedAt = Instant.now();
+
+    private int completed;
+    private int failed;
+
+    public HandoffBatch(String id, List<String> conversationIds) {
+        this.id = id;
+        List<Item> list = new ArrayList<>(conversationIds.size());
+        for (int i = 0; i < conversationIds.size(); i++) {
+            list.add(new Item(i, conversationIds.get(i)));
+        }
+        this.items = List.copyOf(list);
+    }
+
+    public String id() { return id; }
+    public List<Item> items() { return items; }
+    public int total() { return items.size(); }
+    public Instant createdAt() { return createdAt; }
+    public Instant updatedAt() { return updatedAt; }
+
+    public synchronized int completed() { return completed; }
+    public synchronized int failed() { return failed; }
+
+    public synchronized int progress() {
+        if (items.isEmpty()) return 100;
+        return (completed + failed) * 100 / items.size();
+    }
+
+    public synchronized Status status() {
+        int done = completed + failed;
+        if (done == items.size()) {
+            if (failed == 0) return Status.SUCCEEDED;
+            return completed == 0 ? Status.FAILED : Status.PARTIALLY_FAILED;
+        }
+        boolean started = done > 0 || items.stream().anyMatch(it -> it.status == HandoffJob.Status.RUNNING);
+        return started ? Status.RUNNING : Status.QUEUED;
+    }
+
+    public synchronized boolean isDone() {
+        return completed + failed == items.size();
+    }
+
+    /**
+     * Registers a listener and replays items that already finished, so a late subscriber sees every
+     * result exactly once: which items are replayed and which are left to {@link #finished} is decided
+     * under the lock, the listener itself is called outside it (it may block on I/O).
+     */
+    public void subscribe(Consumer<Item> listener) {
+        List<Item> replay = new ArrayList<>();
+        synchronized (this) {
+            for (Item it : items) {
+                if (it.isFinished()) replay.add(it);
+            }
+            listeners.add(listener);
+        }
+        replay.forEach(it -> deliver(listener, it));
+    }
+
+    public void unsubscribe(Consumer<Item> listener) {
+        listeners.remove(listener);
+    }
+
+    void markRunning(Item item) {
+        item.status = HandoffJob.Status.RUNNING;
+        touch();
+    }
+
+    void succeed(Item item, StoredResult r) {
+        List<Consumer<Item>> toNotify;
+        synchronized (this) {
+            item.result = r;
+            item.status = HandoffJob.Status.SUCCEEDED;
+            completed++;
+            toNotify = finished();
+        }
+        toNotify.forEach(l -> deliver(l, item));
+    }
+
+    void fail(Item item, String err) {
+        List<Consumer<Item>> toNotify;
+        synchronized (this) {
+            item.error = err;
+            item.status = HandoffJob.Status.FAILED;
+            failed++;
+            toNotify = finished();
+        }
+        toNotify.forEach(l -> deliver(l, item));
+    }
+
+    /** Called under the lock; returns the listeners that have not seen the item (through a replay). */
+    private List<Consumer<Item>> finished() {
+        touch();
+        return List.copyOf(listeners);
+    }
+
+    private static void deliver(Consumer<Item> listener, Item item) {
+        try {
+            listener.accept(item);
+        } catch (Exception ignored) {
+            // a broken subscriber must not fail the batch
+        }
+    }
+
+    private void touch() {
+        updatedAt = Instant.now();
+    }
+
+    public static final class Item {
+        private final int index;
+        private final String conversationId;
+        private volatile HandoffJob.Status status = HandoffJob.Status.QUEUED;
+        private volatile StoredResult result; // off-heap once finished
+        private volatile String error;
+
+        Item(int index, String conversationId) {
+            this.index = index;
+            this.conversationId = conversationId;
+        }
+
+        public int index() { return index; }
+        public String conversationId() { return conversationId; }
+        public HandoffJob.Status status() { return status; }
+        /** Decoded on every call. */
+        public HandoffResponse result() {
+            StoredResult r = result;
+            return r == null ? null : r.decode();
+        }
+        public String error() { return error; }
+
+        public boolean isFinished() {
+            return status == HandoffJob.Status.SUCCEEDED || status == HandoffJob.Status.FAILED;
+        }
+    }
+}
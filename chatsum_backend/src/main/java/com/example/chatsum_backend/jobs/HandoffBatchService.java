@@ -0,0 +1,136 @@
+package com.example.chatsum_backend.jobs;
+
+import com.example.chatsum_backend.api.dto.HandoffBatchRequest;
+import com.example.chatsum_backend.api.dto.HandoffResponse;
+import com.example.chatsum_backend.application.HandoffService;
+import com.example.chatsum_backend.config.HandoffProperties;
+import com.example.chatsum_backend.openai.CallContext;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+
+/**
+ * Runs many conversations as one batch. Conversations run on the batch pool; their chunk summaries
+ * all go through the batch chunk pool inside {@link HandoffService}, so one batch of N transcripts
+ * has a single, bounded OpenAI fan-out instead of N independent jobs, apart from interactive work.
+ */
+@Service
+public class HandoffBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(HandoffBatchService.class);
+
+    private final JobStore store;
+    private final HandoffService handoffService;
+    private final Executor batchExecutor;
+    private final ResultStore results;
+    private final TaskScheduler taskScheduler;
+    private final HandoffProperties handoffProps;
+
+    public HandoffBatchService(
+            JobStore store,
+            HandoffService handoffService,
+            @Qualifier("batchExecutor") Executor batchExecutor,
+            ResultStore results,
+            TaskScheduler taskScheduler,
+            HandoffProperties handoffProps
+    ) {
+        this.store = store;
+        this.handoffService = handoffService;
+        this.batchExecutor = batchExecutor;
+        this.results = results;
+        this.taskScheduler = taskScheduler;
+        this.handoffProps = handoffProps;
+    }
+
+    @PostConstruct
+    void scheduleEviction() {
+        int ttlMinutes = handoffProps.finishedBatchTtlMinutes();
+        if (ttlMinutes > 0) {
+            Duration ttl = Duration.ofMinutes(ttlMinutes);
+            taskScheduler.scheduleWithFixedDelay(() -> evictFinished(ttl), Duration.ofMinutes(Math.max(1, ttlMinutes / 10)));
+        }
+    }
+
+    public String enqueue(HandoffBatchRequest req) {
+        String id = UUID.randomUUID().toString();
+        List<HandoffBatchRequest.Conversation> conversations = req.conversations();
+
+        List<String> ids = IntStream.range(0, conversations.size())
+                .mapToObj(i -> {
+                    String cid = conversations.get(i).conversationId();
+                    return cid == null || cid.isBlank() ? String.valueOf(i) : cid;
+                })
+                .toList();
+        HandoffBatch batch = store.createBatch(id, ids);
+
+        log.info("handoff.batch enqueued batchId={} conversations={}", id, conversations.size());
+
+        for (HandoffBatch.Item item : batch.items()) {
+            HandoffBatchRequest.Conversation c = conversations.get(item.index());
+            CompletableFuture.runAsync(() -> runItem(batch, item, c, req), batchExecutor);
+        }
+        return id;
+    }
+
+    /** Clients had the TTL to fetch the results; after that a finished batch only holds memory. */
+    private void evictFinished(Duration ttl) {
+        try {
+            int evicted = store.evictFinishedBatches(Instant.now().minus(ttl));
+            if (evicted > 0) log.info("handoff.batch evicted finished={} ttlMinutes={}", evicted, ttl.toMinutes());
+        } catch (Exception e) {
+            log.warn("Batch eviction failed err={}", e.toString()); // never kill the scheduled task
+        }
+    }
+
+    private void runItem(HandoffBatch batch, HandoffBatch.Item item, HandoffBatchRequest.Conversation c, HandoffBatchRequest req) {
+        batch.markRunning(item);
+        if (req.deferred()) {
+            // finished from the callback: a batch thread is not held while the Batch API works
+            handoffService.generateDeferredAsync(c.transcript(), req.targetModel(), req.developerMode(), CallContext.NONE)
+                    .whenComplete((res, err) -> finishItem(batch, item, res, err));
+            return;
+        }
+
+        HandoffResponse res = null;
+        Exception failure = null;
+        try {
+            res = handoffService.generateBatchItem(c.transcript(), req.targetModel(), req.developerMode());
+        } catch (Exception e) {
+            failure = e;
+        }
+        finishItem(batch, item, res, failure);
+    }
+
+    private void finishItem(HandoffBatch batch, HandoffBatch.Item item, HandoffResponse res, Throwable err) {
+        Throwable failure = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+        if (failure == null) {
+            try {
+                batch.succeed(item, results.store(res));
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            log.warn("handoff.batch item failed batchId={} conversationId={} err={}",
+                    batch.id(), item.conversationId(), failure.toString());
+            batch.fail(item, failure.getMessage());
+        }
+
+        if (batch.isDone()) {
+            log.info("handoff.batch finished batchId={} status={} completed={} failed={}",
+                    batch.id(), batch.status(), batch.completed(), batch.failed());
+        }
+    }
+}
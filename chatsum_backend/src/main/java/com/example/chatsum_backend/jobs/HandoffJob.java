@@ -1,11 +1,14 @@
 package com.example.chatsum_backend.jobs;
 
 import com.example.chatsum_backend.api.dto.HandoffResponse;
+import com.example.chatsum_backend.openai.CallContext;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class HandoffJob {
-    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED }
 
     private final String id;
     private volatile Status status;
@@ -14,12 +17,26 @@ public class HandoffJob {
 
     private final Instant createdAt = Instant.now();
     private volatile Instant updatedAt = Instant.now();
+    // bumped on every visible change; served as the ETag of job polls
+    private final AtomicLong version = new AtomicLong();
+    // last time a client asked about this job; idle jobs get cancelled
+    private volatile Instant lastPolledAt = Instant.now();
 
-    private volatile HandoffResponse result;
+    private final CallContext callContext;
+
+    private volatile StoredResult result; // off-heap once finished
     private volatile String error;
 
     public HandoffJob(String id) {
+        this(id, null);
+    }
+
+    /**
+     * @param deadline measured from creation, so time spent queued counts; null = none
+     */
+    public HandoffJob(String id, Duration deadline) {
         this.id = id;
+        this.callContext = new CallContext(deadline);
         this.status = Status.QUEUED;
         this.progress = 0;
         this.message = "Queued…";
@@ -32,19 +49,40 @@ public class HandoffJob {
     public String message() { return message; }
     public Instant createdAt() { return createdAt; }
     public Instant updatedAt() { return updatedAt; }
-    public HandoffResponse result() { return result; }
+    /** Decoded on every call; use {@link #storedResult()} to fetch single fields. */
+    public HandoffResponse result() {
+        StoredResult r = result;
+        return r == null ? null : r.decode();
+    }
+    public StoredResult storedResult() { return result; }
     public String error() { return error; }
+    public Instant lastPolledAt() { return lastPolledAt; }
+    public long version() { return version.get(); }
+    public CallContext callContext() { return callContext; }
+
+    public boolean isFinished() {
+        Status s = status;
+        return s == Status.SUCCEEDED || s == Status.FAILED || s == Status.CANCELLED;
+    }
 
     public int getProgress() { return progress; }
     public String getMessage() { return message; }
 
-    public void setRunning(String msg) {
+    /** QUEUED -> RUNNING; false if the job was cancelled while it waited. */
+    public synchronized boolean start(String msg) {
+        if (status != Status.QUEUED) return false;
         status = Status.RUNNING;
         message = msg;
         touch();
+        return true;
+    }
+
+    public void markPolled() {
+        lastPolledAt = Instant.now();
     }
 
     public void setProgress(int p, String msg) {
+        if (isFinished()) return; // e.g. the ticker racing a cancellation
         int clamped = Math.max(0, Math.min(100, p));
         if (clamped < this.progress) clamped = this.progress;
 
@@ -53,7 +91,11 @@ public class HandoffJob {
         touch();
     }
 
-    public void succeed(HandoffResponse r) {
+    /**
+     * @param r null when nobody will fetch it from the job (a synchronous caller gets the response directly)
+     */
+    public synchronized void succeed(StoredResult r) {
+        if (status == Status.CANCELLED) return;
         status = Status.SUCCEEDED;
         progress = 100;
         message = "Done";
@@ -61,14 +103,31 @@ public class HandoffJob {
         touch();
     }
 
-    public void fail(String err) {
+    public synchronized void fail(String err) {
+        if (status == Status.CANCELLED) return;
         status = Status.FAILED;
         message = "Failed";
         error = err;
         touch();
     }
 
+    /**
+     * Marks the job cancelled and aborts its OpenAI calls. No-op (false) once the job has finished.
+     */
+    public boolean cancel(String reason) {
+        synchronized (this) {
+            if (isFinished()) return false;
+            status = Status.CANCELLED;
+            message = "Cancelled";
+            error = reason;
+            touch();
+        }
+        callContext.cancel(); // outside the lock: abort hooks may block briefly
+        return true;
+    }
+
     private void touch() {
         updatedAt = Instant.now();
+        version.incrementAndGet();
     }
 }
@@ -3,13 +3,22 @@ package com.example.chatsum_backend.jobs;
 import com.example.chatsum_backend.api.dto.HandoffRequest;
 import com.example.chatsum_backend.api.dto.HandoffResponse;
 import com.example.chatsum_backend.application.HandoffService;
+import com.example.chatsum_backend.config.HandoffProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import org.springframework.scheduling.TaskScheduler;
@@ -20,9 +29,14 @@ import org.springframework.scheduling.TaskScheduler;
 @Service
 public class HandoffJobService {
 
+    private static final Logger log = LoggerFactory.getLogger(HandoffJobService.class);
+
     private final JobStore store;
     private final HandoffService handoffService;
     private final Executor handoffExecutor;
+    private final AdmissionControl admission;
+    private final ResultStore results;
+    private final HandoffProperties handoffProps;
 
     private final TaskScheduler taskScheduler;
 
@@ -34,49 +48,189 @@ public class HandoffJobService {
                 return t;
             });
 
-    public HandoffJobService(JobStore store, HandoffService handoffService, Executor handoffExecutor, TaskScheduler taskScheduler) {
+    public HandoffJobService(
+            JobStore store,
+            HandoffService handoffService,
+            @Qualifier("handoffExecutor") Executor handoffExecutor,
+            AdmissionControl admission,
+            ResultStore results,
+            TaskScheduler taskScheduler,
+            HandoffProperties handoffProps
+    ) {
         this.store = store;
         this.handoffService = handoffService;
         this.handoffExecutor = handoffExecutor;
+        this.admission = admission;
+        this.results = results;
         this.taskScheduler = taskScheduler;
+        this.handoffProps = handoffProps;
     }
 
+    @PostConstruct
+    void scheduleIdleSweep() {
+        int idleSeconds = handoffProps.jobIdleCancelSeconds();
+        if (idleSeconds > 0) {
+            Duration idle = Duration.ofSeconds(idleSeconds);
+            taskScheduler.scheduleWithFixedDelay(
+                    () -> cancelIdleJobs(idle), Duration.ofSeconds(Math.max(5, idleSeconds / 4)));
+        }
+    }
+
+    /**
+     * @throws AdmissionRejectedException if the node cannot take the job on; nothing is stored in that case
+     */
     public String enqueue(HandoffRequest req) {
+        AdmissionControl.Ticket ticket = admission.admit(req.transcript().length());
+
         String id = UUID.randomUUID().toString();
-        HandoffJob job = store.create(id);
+        HandoffJob job = store.create(id, req.deadline());
 
-        CompletableFuture.runAsync(() -> runJob(job, req), handoffExecutor);
+        try {
+            CompletableFuture.runAsync(() -> runJob(job, req, ticket, new CompletableFuture<>(), true), handoffExecutor);
+        } catch (RejectedExecutionException e) {
+            // never reached the queue: don't leave it QUEUED forever
+            store.remove(id);
+            admission.cancelled(ticket);
+            throw admission.saturated();
+        }
 
         return id;
     }
 
-    private void runJob(HandoffJob job, HandoffRequest req) {
+    /**
+     * Runs a request through the same pipeline as {@link #enqueue} (admission control, handoff pool,
+     * deadline) for a caller that waits for the result instead of polling. The job is not stored, so the
+     * idle sweep leaves it alone; cancelling the returned future cancels the job and its OpenAI calls.
+     *
+     * @throws AdmissionRejectedException if the node cannot take the job on
+     */
+    public CompletableFuture<HandoffResponse> submit(HandoffRequest req) {
+        AdmissionControl.Ticket ticket = admission.admit(req.transcript().length());
+
+        HandoffJob job = new HandoffJob(UUID.randomUUID().toString(), req.deadline());
+        CompletableFuture<HandoffResponse> result = new CompletableFuture<>();
+        result.whenComplete((r, err) -> {
+            if (err instanceof CancellationException) job.cancel("Request cancelled");
+        });
+
+        try {
+            CompletableFuture.runAsync(() -> runJob(job, req, ticket, result, false), handoffExecutor);
+        } catch (RejectedExecutionException e) {
+            admission.cancelled(ticket);
+            throw admission.saturated();
+        }
+
+        return result;
+    }
+
+    /**
+     * @return false if the job had already finished
+     */
+    public boolean cancel(String jobId, String reason) {
+        HandoffJob job = store.get(jobId).orElse(null);
+        if (job == null || !job.cancel(reason)) return false;
+        log.info("handoff.job cancelled jobId={} reason={}", jobId, reason);
+        return true;
+    }
+
+    /** Nobody is waiting for these any more (tab closed, resubmitted): stop paying for them. */
+    private void cancelIdleJobs(Duration idle) {
         try {
-            // 0️⃣ Job accepted
-            job.setProgress(0, "Queued…");
-            job.setRunning("Starting…");
+            Instant cutoff = Instant.now().minus(idle);
+            for (HandoffJob job : store.jobs()) {
+                if (!job.isFinished() && job.lastPolledAt().isBefore(cutoff)) {
+                    cancel(job.id(), "Not polled for " + idle.toSeconds() + "s");
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Idle job sweep failed err={}", e.toString()); // never kill the scheduled task
+        }
+    }
+
+    /**
+     * @param result completed with the outcome, for callers waiting on it (polled jobs ignore it)
+     * @param storeResult keep the result on the job for polling
+     */
+    private void runJob(
+            HandoffJob job,
+            HandoffRequest req,
+            AdmissionControl.Ticket ticket,
+            CompletableFuture<HandoffResponse> result,
+            boolean storeResult
+    ) {
+        // 0️⃣ Job accepted (unless it was cancelled while queued)
+        if (!job.start("Starting…")) {
+            admission.cancelled(ticket);
+            result.cancel(false);
+            return;
+        }
+        admission.started(ticket);
+        long start = System.currentTimeMillis();
 
-            // 1️⃣ These are REAL pipeline stages (even if timing is approximate)
-            job.setProgress(5, "Parsing transcript");
-            job.setProgress(10, "Chunking transcript");
-            job.setProgress(15, "Summarizing conversation");
+        // 1️⃣ These are REAL pipeline stages (even if timing is approximate)
+        job.setProgress(5, "Parsing transcript");
+        job.setProgress(10, "Chunking transcript");
+        job.setProgress(15, "Summarizing conversation");
 
+        if (req.deferred()) {
+            // Batch API: this worker only submits the chunk batch; the job is finished from the callback
+            // once the last batch completes, so waiting hours for OpenAI holds no handoff thread.
+            // The ticket goes back as soon as the batch is submitted (see AdmissionControl#deferred).
+            CompletableFuture<HandoffResponse> deferred = handoffService.generateDeferredAsync(
+                    req.transcript(), req.targetModel(), req.developerMode(), job.callContext());
+            admission.deferred(ticket);
+            deferred.whenComplete((res, err) -> finish(job, null, result, storeResult, start, res, err));
+            return;
+        }
+
+        HandoffResponse res = null;
+        Exception failure = null;
+        try {
             // 🔥 Long-running operation (OpenAI calls happen inside here)
-            HandoffResponse res = handoffService.generate(
-                    req.transcript(),
-                    req.targetModel(),
-                    req.developerMode()
-            );
-
-            // 2️⃣ Finalization stages
-            job.setProgress(70, "Merging summaries");
-            job.setProgress(85, "Building seed prompt");
-            job.setProgress(95, "Finalizing output");
-
-            // 3️⃣ Done
-            job.succeed(res); // sets progress=100 internally
+            res = handoffService.generate(req.transcript(), req.targetModel(), req.developerMode(), job.callContext());
         } catch (Exception e) {
-            job.fail(e.getMessage());
+            failure = e;
+        }
+        finish(job, ticket, result, storeResult, start, res, failure);
+    }
+
+    /**
+     * @param ticket null once it was handed back (deferred jobs)
+     */
+    private void finish(
+            HandoffJob job,
+            AdmissionControl.Ticket ticket,
+            CompletableFuture<HandoffResponse> result,
+            boolean storeResult,
+            long start,
+            HandoffResponse res,
+            Throwable err
+    ) {
+        Throwable failure = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+        try {
+            if (failure == null) {
+                try {
+                    // 2️⃣ Finalization stages
+                    job.setProgress(70, "Merging summaries");
+                    job.setProgress(85, "Building seed prompt");
+                    job.setProgress(95, "Finalizing output");
+
+                    // 3️⃣ Done
+                    job.succeed(storeResult ? results.store(res) : null); // sets progress=100 internally
+                    result.complete(res);
+                } catch (Exception e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                job.fail(failure.getMessage()); // no-op if this is the cancellation surfacing
+                result.completeExceptionally(failure);
+            }
+        } finally {
+            if (ticket != null) {
+                if (job.status() == HandoffJob.Status.CANCELLED) admission.aborted(ticket);
+                else admission.finished(ticket, System.currentTimeMillis() - start);
+            }
         }
     }
 
@@ -2,6 +2,10 @@ package com.example.chatsum_backend.jobs;
 
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -9,9 +13,14 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class JobStore {
     private final Map<String, HandoffJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, HandoffBatch> batches = new ConcurrentHashMap<>();
 
     public HandoffJob create(String id) {
-        HandoffJob job = new HandoffJob(id);
+        return create(id, null);
+    }
+
+    public HandoffJob create(String id, Duration deadline) {
+        HandoffJob job = new HandoffJob(id, deadline);
         jobs.put(id, job);
         return job;
     }
@@ -19,4 +28,29 @@ public class JobStore {
     public Optional<HandoffJob> get(String id) {
         return Optional.ofNullable(jobs.get(id));
     }
+
+    public Collection<HandoffJob> jobs() {
+        return jobs.values();
+    }
+
+    public void remove(String id) {
+        jobs.remove(id);
+    }
+
+    public HandoffBatch createBatch(String id, List<String> conversationIds) {
+        HandoffBatch batch = new HandoffBatch(id, conversationIds);
+        batches.put(id, batch);
+        return batch;
+    }
+
+    public Optional<HandoffBatch> getBatch(String id) {
+        return Optional.ofNullable(batches.get(id));
+    }
+
+    /** @return how many finished batches last changed before the cutoff and were dropped */
+    public int evictFinishedBatches(Instant cutoff) {
+        int before = batches.size();
+        batches.values().removeIf(b -> b.isDone() && b.updatedAt().isBefore(cutoff));
+        return before - batches.size();
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.chatsum_backend.jobs;
+
+import com.example.chatsum_backend.api.dto.HandoffResponse;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Cleaner;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Encodes finished results into {@link StoredResult}s and keeps count of what they hold off-heap.
+ * A result's bytes are freed (and un-counted) once its job is no longer referenced.
+ */
+@Component
+public class ResultStore {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final LongAdder results = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder offHeapBytes = new LongAdder();
+
+    /**
+     * @param rawBytes       UTF-8 size of the stored results (what they would take on-heap as Latin-1 Strings)
+     * @param offHeapBytes   compressed bytes in direct buffers held by results
+     * @param directPoolBytes all direct buffers of the JVM (incl. HTTP and NIO buffers)
+     */
+    public record Stats(
+            long results,
+            long rawBytes,
+            long offHeapBytes,
+            double compressionRatio,
+            long directPoolBytes,
+            long heapUsedBytes,
+            long heapMaxBytes
+    ) {}
+
+    public StoredResult store(HandoffResponse response) {
+        StoredResult stored = StoredResult.encode(response);
+        long raw = stored.rawBytes();
+        long offHeap = stored.offHeapBytes();
+        results.increment();
+        rawBytes.add(raw);
+        offHeapBytes.add(offHeap);
+        // must not capture stored, or it would never become unreachable
+        CLEANER.register(stored, () -> {
+            results.decrement();
+            rawBytes.add(-raw);
+            offHeapBytes.add(-offHeap);
+        });
+        return stored;
+    }
+
+    public Stats stats() {
+        long raw = rawBytes.sum();
+        long offHeap = offHeapBytes.sum();
+        Runtime rt = Runtime.getRuntime();
+        return new Stats(
+                results.sum(),
+                raw,
+                offHeap,
+                offHeap == 0 ? 0.0 : (double) raw / offHeap,
+                directPoolBytes(),
+                rt.totalMemory() - rt.freeMemory(),
+                rt.maxMemory()
+        );
+    }
+
+    private static long directPoolBytes() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.chatsum_backend.jobs;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/results — finished results held off-heap vs the heap in use.
+ */
+@Component
+@Endpoint(id = "results")
+public class ResultStoreEndpoint {
+
+    private final ResultStore results;
+
+    public ResultStoreEndpoint(ResultStore results) {
+        this.results = results;
+    }
+
+    @ReadOperation
+    public ResultStore.Stats stats() {
+        return results.stats();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.chatsum_backend.jobs;
+
+import com.example.chatsum_backend.api.dto.HandoffResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A finished {@link HandoffResponse} kept off-heap: every field UTF-8 encoded and deflated once into a
+ * direct buffer. Only this small handle lives on the heap; fields are inflated when a client fetches them.
+ * Created through {@link ResultStore}, which accounts for the off-heap bytes.
+ */
+public final class StoredResult {
+
+    public enum Field {
+        HANDOFF_SUMMARY("handoffSummary"),
+        CURRENT_STATE("currentState"),
+        SEED_PROMPT("seedPrompt"),
+        NEEDED_CONTEXT("neededContext");
+
+        public final String key;
+
+        Field(String key) {
+            this.key = key;
+        }
+
+        /** @return null for an unknown key */
+        public static Field byKey(String key) {
+            for (Field f : values()) {
+                if (f.key.equals(key)) return f;
+            }
+            return null;
+        }
+    }
+
+    private static final int BUFFER = 8 * 1024;
+
+    private final ByteBuffer segment;   // read-only view of the direct buffer
+    private final int[] offsets;        // compressed field i = [offsets[i], offsets[i + 1])
+    private final int[] rawLengths;     // UTF-8 bytes per field; -1 = null
+
+    private StoredResult(ByteBuffer segment, int[] offsets, int[] rawLengths) {
+        this.segment = segment;
+        this.offsets = offsets;
+        this.rawLengths = rawLengths;
+    }
+
+    static StoredResult encode(HandoffResponse r) {
+        String[] values = {r.handoffSummary(), r.currentState(), r.seedPrompt(), r.neededContext()};
+        int[] offsets = new int[values.length + 1];
+        int[] rawLengths = new int[values.length];
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        byte[] buf = new byte[BUFFER];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                offsets[i] = compressed.size();
+                if (values[i] == null) {
+                    rawLengths[i] = -1;
+                    continue;
+                }
+                byte[] raw = values[i].getBytes(StandardCharsets.UTF_8);
+                rawLengths[i] = raw.length;
+                deflater.reset();
+                deflater.setInput(raw);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buf, 0, deflater.deflate(buf));
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        offsets[values.length] = compressed.size();
+
+        ByteBuffer segment = ByteBuffer.allocateDirect(compressed.size());
+        segment.put(compressed.toByteArray()).flip();
+        return new StoredResult(segment.asReadOnlyBuffer(), offsets, rawLengths);
+    }
+
+    public HandoffResponse decode() {
+        return new HandoffResponse(
+                field(Field.HANDOFF_SUMMARY),
+                field(Field.CURRENT_STATE),
+                field(Field.SEED_PROMPT),
+                field(Field.NEEDED_CONTEXT)
+        );
+    }
+
+    public String field(Field f) {
+        int raw = rawLengths[f.ordinal()];
+        if (raw < 0) return null;
+        byte[] out = new byte[raw];
+        Inflater inflater = inflater(f);
+        try {
+            for (int pos = 0; pos < raw; ) {
+                pos += inflate(inflater, f, out, pos, raw - pos);
+            }
+        } finally {
+            inflater.end();
+        }
+        return new String(out, StandardCharsets.UTF_8);
+    }
+
+    /** Streams a field's UTF-8 bytes (nothing for null) without materializing it as a String. */
+    public void writeTo(Field f, OutputStream out) throws IOException {
+        int raw = rawLengths[f.ordinal()];
+        byte[] buf = new byte[BUFFER];
+        Inflater inflater = inflater(f);
+        try {
+            for (int pos = 0; pos < raw; ) {
+                int n = inflate(inflater, f, buf, 0, Math.min(buf.length, raw - pos));
+                out.write(buf, 0, n);
+                pos += n;
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /** UTF-8 length of a field; -1 if it is null. */
+    public int rawLength(Field f) {
+        return rawLengths[f.ordinal()];
+    }
+
+    public int rawBytes() {
+        int sum = 0;
+        for (int len : rawLengths) sum += Math.max(0, len);
+        return sum;
+    }
+
+    public int offHeapBytes() {
+        return segment.capacity();
+    }
+
+    private Inflater inflater(Field f) {
+        int i = f.ordinal();
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(segment.slice(offsets[i], offsets[i + 1] - offsets[i]));
+        return inflater;
+    }
+
+    private static int inflate(Inflater inflater, Field f, byte[] buf, int off, int len) {
+        try {
+            int n = inflater.inflate(buf, off, len);
+            if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                throw new IllegalStateException("Truncated result segment (field " + f.key + ")");
+            }
+            return n;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt result segment (field " + f.key + ")", e);
+        }
+    }
+}
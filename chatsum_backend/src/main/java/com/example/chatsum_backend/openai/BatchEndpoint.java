@@ -0,0 +1,34 @@
+package com.example.chatsum_backend.openai;
+
+import tools.jackson.databind.JsonNode;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Abstraction over an asynchronous batch endpoint (OpenAI Batch API or a local stand-in).
+ *
+ * Input is a JSONL file where every line is {"custom_id", "method", "url", "body"};
+ * results map each custom_id to the Responses API body it produced.
+ */
+public interface BatchEndpoint {
+
+    /** Uploads/accepts the JSONL file and starts the batch. Returns the batch id. */
+    String submit(Path jsonl);
+
+    BatchStatus poll(String batchId);
+
+    /** Only valid once {@link #poll} reported {@link BatchStatus.State#COMPLETED}. */
+    Map<String, JsonNode> results(String batchId);
+
+    /** Stops a batch that is no longer wanted; requests it already finished are still billed. */
+    void cancel(String batchId);
+
+    record BatchStatus(State state, int completed, int failed, int total) {
+        public enum State { IN_PROGRESS, COMPLETED, FAILED }
+
+        public boolean isTerminal() {
+            return state != State.IN_PROGRESS;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.chatsum_backend.openai;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-job state threaded through every OpenAI call of one handoff: a cancellation token and an optional deadline.
+ *
+ * Whatever is in flight when {@link #cancel} runs registers an abort hook ({@link #onCancel}), so
+ * cancelling a job aborts its HTTP exchanges and wakes its waits instead of letting them run out.
+ * The deadline caps every per-call timeout, so no call outlives the job.
+ */
+public final class CallContext {
+
+    /** For callers without a job (sync endpoint, tests): never cancelled. */
+    public static final CallContext NONE = new CallContext();
+
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private final Set<Runnable> aborts = ConcurrentHashMap.newKeySet();
+    private final long deadlineNanos; // System.nanoTime() based; Long.MAX_VALUE = none
+    private final Duration budget;
+
+    public CallContext() {
+        this(null);
+    }
+
+    /**
+     * @param budget time the whole job may take from now; null = no deadline
+     */
+    public CallContext(Duration budget) {
+        this(budget, budget == null ? Long.MAX_VALUE : System.nanoTime() + budget.toNanos());
+    }
+
+    private CallContext(Duration budget, long deadlineNanos) {
+        this.budget = budget;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Same deadline, but cancellable on its own, for one branch of a job that may have to be abandoned
+     * while the rest goes on. Not linked: the caller registers {@code onCancel(child::cancel)} on this one.
+     */
+    public CallContext child() {
+        return new CallContext(budget, deadlineNanos);
+    }
+
+    /** Deregisters an abort hook once the call it guards is over. */
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public boolean isCancelled() {
+        return cancelled.getCount() == 0;
+    }
+
+    /** Idempotent; runs every registered abort hook once. */
+    public void cancel() {
+        if (this == NONE || isCancelled()) return;
+        cancelled.countDown();
+        for (Runnable abort : aborts) {
+            aborts.remove(abort);
+            abort.run();
+        }
+    }
+
+    public void throwIfCancelled() {
+        if (isCancelled()) throw new CancellationException("Job cancelled");
+    }
+
+    public boolean hasDeadline() {
+        return deadlineNanos != Long.MAX_VALUE;
+    }
+
+    /** Millis left until the deadline (negative once passed); Long.MAX_VALUE without a deadline. */
+    public long remainingMs() {
+        return hasDeadline() ? (deadlineNanos - System.nanoTime()) / 1_000_000 : Long.MAX_VALUE;
+    }
+
+    public void throwIfExpired() {
+        if (remainingMs() <= 0) throw expired();
+    }
+
+    public DeadlineExceededException expired() {
+        return new DeadlineExceededException("Job deadline of " + budget.toSeconds() + "s exceeded");
+    }
+
+    /**
+     * Runs abort on cancellation (right away if already cancelled) until the registration is closed.
+     */
+    public Registration onCancel(Runnable abort) {
+        aborts.add(abort);
+        // cancel() may have swept the set before the add
+        if (isCancelled() && aborts.remove(abort)) abort.run();
+        return () -> aborts.remove(abort);
+    }
+
+    /** Thread.sleep that returns early, by throwing, when the context is cancelled or its deadline passes. */
+    public void sleep(long ms) throws InterruptedException {
+        long remaining = remainingMs();
+        if (cancelled.await(Math.max(0, Math.min(ms, remaining)), TimeUnit.MILLISECONDS)) {
+            throw new CancellationException("Job cancelled");
+        }
+        if (remaining <= ms) throw expired();
+    }
+}
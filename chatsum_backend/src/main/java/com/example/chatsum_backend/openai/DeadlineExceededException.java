@@ -0,0 +1,13 @@
+package com.example.chatsum_backend.openai;
+
+/**
+ * The job's deadline (see {@link CallContext}) passed, or is too close to start another call.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.chatsum_backend.openai;
+
+import com.example.chatsum_backend.config.OpenAiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * OpenAI Batch API: upload JSONL to /v1/files (purpose=batch), create a /v1/batches job against
+ * /v1/responses, poll it, then download the output file (or cancel it when the job gives up).
+ */
+@Component
+public class OpenAiBatchEndpoint implements BatchEndpoint {
+    private static final Logger log = LoggerFactory.getLogger(OpenAiBatchEndpoint.class);
+
+    private static final String BASE = "https://api.openai.com/v1";
+
+    private final OpenAiProperties props;
+    private final ObjectMapper om;
+    private final HttpClient http;
+
+    public OpenAiBatchEndpoint(OpenAiProperties props, ObjectMapper om) {
+        this.props = props;
+        this.om = om;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(props.timeouts().connectSeconds()))
+                .build();
+    }
+
+    @Override
+    public String submit(Path jsonl) {
+        try {
+            String fileId = upload(jsonl);
+
+            String body = om.writeValueAsString(Map.of(
+                    "input_file_id", fileId,
+                    "endpoint", "/v1/responses",
+                    "completion_window", completionWindow()
+            ));
+            JsonNode batch = send(HttpRequest.newBuilder()
+                    .uri(URI.create(BASE + "/batches"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+
+            String batchId = requiredId(batch, "batch");
+            log.info("OpenAI batch submitted batchId={} inputFileId={} bytes={}", batchId, fileId, Files.size(jsonl));
+            return batchId;
+        } catch (Exception e) {
+            throw new RuntimeException("OpenAI batch submit failed", e);
+        }
+    }
+
+    @Override
+    public BatchStatus poll(String batchId) {
+        JsonNode batch = getBatch(batchId);
+        JsonNode counts = batch.path("request_counts");
+        BatchStatus.State state = switch (batch.path("status").asString("")) {
+            case "completed" -> BatchStatus.State.COMPLETED;
+            case "failed", "expired", "cancelled", "cancelling" -> BatchStatus.State.FAILED;
+            default -> BatchStatus.State.IN_PROGRESS; // validating, in_progress, finalizing
+        };
+        return new BatchStatus(
+                state,
+                counts.path("completed").asInt(0),
+                counts.path("failed").asInt(0),
+                counts.path("total").asInt(0)
+        );
+    }
+
+    @Override
+    public Map<String, JsonNode> results(String batchId) {
+        String outputFileId = getBatch(batchId).path("output_file_id").asString("");
+        if (outputFileId.isEmpty()) throw new RuntimeException("OpenAI batch has no output file: " + batchId);
+
+        HttpRequest req = authorized(HttpRequest.newBuilder()
+                .uri(URI.create(BASE + "/files/" + outputFileId + "/content"))
+                .GET());
+        Map<String, JsonNode> out = new HashMap<>();
+        try {
+            HttpResponse<InputStream> res = http.send(req, HttpResponse.BodyHandlers.ofInputStream());
+            if (res.statusCode() / 100 != 2) {
+                throw new RuntimeException("OpenAI batch output download failed: HTTP " + res.statusCode());
+            }
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(res.body(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    JsonNode row = om.readTree(line);
+                    JsonNode response = row.path("response");
+                    if (response.path("status_code").asInt(0) / 100 == 2) {
+                        out.put(row.path("custom_id").asString(""), response.path("body"));
+                    } else {
+                        log.warn("OpenAI batch line failed customId={} status={}",
+                                row.path("custom_id").asString(""), response.path("status_code").asInt(0));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("OpenAI batch output download failed", e);
+        }
+        return out;
+    }
+
+    @Override
+    public void cancel(String batchId) {
+        try {
+            send(HttpRequest.newBuilder()
+                    .uri(URI.create(BASE + "/batches/" + batchId + "/cancel"))
+                    .POST(HttpRequest.BodyPublishers.noBody()));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("OpenAI batch cancel failed", e);
+        }
+    }
+
+    private String upload(Path jsonl) throws Exception {
+        String boundary = "----chatsum" + UUID.randomUUID();
+        byte[] head = ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"purpose\"\r\n\r\nbatch\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + jsonl.getFileName() + "\"\r\n"
+                + "Content-Type: application/jsonl\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+
+        // Stream the file between the multipart head/tail instead of loading it into memory
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(() -> new SequenceInputStream(
+                Collections.enumeration(List.of(
+                        new ByteArrayInputStream(head),
+                        newInputStream(jsonl),
+                        new ByteArrayInputStream(tail)
+                ))));
+
+        JsonNode file = send(HttpRequest.newBuilder()
+                .uri(URI.create(BASE + "/files"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(publisher));
+        return requiredId(file, "file");
+    }
+
+    /** Jackson 3's asText() throws on a missing field; say what OpenAI left out instead. */
+    private static String requiredId(JsonNode node, String kind) {
+        String id = node.path("id").asString("");
+        if (id.isEmpty()) throw new RuntimeException("OpenAI " + kind + " response has no id");
+        return id;
+    }
+
+    private static InputStream newInputStream(Path p) {
+        try {
+            return Files.newInputStream(p);
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot read batch file " + p, e);
+        }
+    }
+
+    private JsonNode getBatch(String batchId) {
+        try {
+            return send(HttpRequest.newBuilder().uri(URI.create(BASE + "/batches/" + batchId)).GET());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("OpenAI batch poll failed", e);
+        }
+    }
+
+    private JsonNode send(HttpRequest.Builder builder) throws Exception {
+        HttpResponse<String> res = http.send(authorized(builder), HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() / 100 != 2) {
+            log.error("OpenAI batch error status={} body={}", res.statusCode(),
+                    res.body().length() <= 1200 ? res.body() : res.body().substring(0, 1200) + "...");
+            throw new RuntimeException("OpenAI batch call failed: HTTP " + res.statusCode());
+        }
+        return om.readTree(res.body());
+    }
+
+    private HttpRequest authorized(HttpRequest.Builder builder) {
+        return builder
+                .timeout(Duration.ofSeconds(props.timeouts().requestSeconds()))
+                .header("Authorization", "Bearer " + props.apiKey())
+                .build();
+    }
+
+    private String completionWindow() {
+        OpenAiProperties.Batch b = props.batch();
+        return b == null || b.completionWindow() == null ? "24h" : b.completionWindow();
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.chatsum_backend.openai;
+
+import com.example.chatsum_backend.config.OpenAiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Deferred execution of Responses API calls through a {@link BatchEndpoint}:
+ * write JSONL -> submit -> poll until terminal -> collect bodies by custom_id.
+ *
+ * Only the submission runs on the calling thread. Polls are scheduled on the batch poll scheduler and the
+ * result future completes there, so a batch that takes hours does not hold a job thread while it waits.
+ * A failed poll is retried with backoff; a batch given up on is cancelled at the endpoint so it stops billing.
+ */
+@Component
+public class OpenAiBatchRunner {
+    private static final Logger log = LoggerFactory.getLogger(OpenAiBatchRunner.class);
+    private static final byte[] LINE_START = "{\"custom_id\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LINE_BODY = ",\"method\":\"POST\",\"url\":\"/v1/responses\",\"body\":".getBytes(StandardCharsets.UTF_8);
+
+    // A 5xx or network blip must not throw away a batch that may have run for hours; give up after this many in a row
+    private static final int MAX_POLL_ERRORS = 8;
+    private static final long MAX_POLL_BACKOFF_MS = 5 * 60_000L;
+
+    private final BatchEndpoint endpoint;
+    private final OpenAiProperties props;
+    private final ObjectMapper om;
+    private final TaskScheduler scheduler;
+
+    public OpenAiBatchRunner(
+            BatchEndpoint endpoint,
+            OpenAiProperties props,
+            ObjectMapper om,
+            @Qualifier("batchPollScheduler") TaskScheduler scheduler
+    ) {
+        this.endpoint = endpoint;
+        this.props = props;
+        this.om = om;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Blocking form of {@link #runAsync}, for callers that have a thread to spare (tests, tools).
+     *
+     * @param calls custom_id + Responses API body (as built by {@link OpenAiClient})
+     * @return response body per custom_id; every call must have succeeded
+     */
+    public Map<String, JsonNode> run(List<BatchCall> calls) {
+        try {
+            return runAsync(calls, CallContext.NONE).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Submits the batch and returns right away; the future completes with the response body per custom_id
+     * once the batch is done. Cancelling ctx (or its deadline passing) stops polling right away, fails
+     * the future and cancels the submitted batch.
+     */
+    public CompletableFuture<Map<String, JsonNode>> runAsync(List<BatchCall> calls, CallContext ctx) {
+        if (calls.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+
+        long t0 = System.nanoTime();
+        String batchId;
+        try {
+            ctx.throwIfCancelled();
+            batchId = submit(calls);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Map<String, JsonNode>> result = new CompletableFuture<>();
+        Poll poll = new Poll(batchId, calls, ctx, result, t0);
+        CallContext.Registration cancel = ctx.onCancel(() -> abandon(batchId, result, new CancellationException("Job cancelled")));
+        result.whenComplete((r, err) -> {
+            cancel.close();
+            poll.stop();
+        });
+        poll.schedule(0);
+        return result;
+    }
+
+    /**
+     * Fails the result and, if that is what ended it, cancels the batch so OpenAI stops running (and billing)
+     * its remaining requests. The cancel call goes out on the poll scheduler, not on the canceller's thread.
+     */
+    private void abandon(String batchId, CompletableFuture<?> result, RuntimeException why) {
+        if (result.completeExceptionally(why)) scheduler.schedule(() -> cancelBatch(batchId), Instant.now());
+    }
+
+    private void cancelBatch(String batchId) {
+        try {
+            endpoint.cancel(batchId);
+            log.info("OpenAI batch cancelled batchId={}", batchId);
+        } catch (RuntimeException e) {
+            log.warn("OpenAI batch cancel failed batchId={}", batchId, e);
+        }
+    }
+
+    private String submit(List<BatchCall> calls) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("chatsum-batch-", ".jsonl");
+            writeJsonl(file, calls);
+            return endpoint.submit(file);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("OpenAI batch run failed", e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (Exception ignored) {
+                    // temp dir cleanup will get it
+                }
+            }
+        }
+    }
+
+    /**
+     * Bodies from {@link OpenAiClient} are already compact UTF-8 JSON (no raw newlines),
+     * so each line is spliced together from bytes instead of being re-parsed and re-serialized.
+     */
+    private void writeJsonl(Path file, List<BatchCall> calls) throws Exception {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+            for (BatchCall c : calls) {
+                out.write(LINE_START);
+                out.write(om.writeValueAsBytes(c.customId()));
+                out.write(LINE_BODY);
+                out.write(c.body());
+                out.write('}');
+                out.write('\n');
+            }
+        }
+    }
+
+    /**
+     * One poll per run; reschedules itself until the batch is terminal, the wait is over, polling failed
+     * {@link #MAX_POLL_ERRORS} times in a row or the result future is completed from outside (cancellation).
+     */
+    private final class Poll implements Runnable {
+        private final String batchId;
+        private final List<BatchCall> calls;
+        private final CallContext ctx;
+        private final CompletableFuture<Map<String, JsonNode>> result;
+        private final long t0;
+        private final long pollMs;
+        private final long maxWaitMs;
+        private final long deadline;
+        private volatile ScheduledFuture<?> next;
+        private int errors; // consecutive failed polls; runs never overlap, each is scheduled by the one before
+
+        Poll(String batchId, List<BatchCall> calls, CallContext ctx, CompletableFuture<Map<String, JsonNode>> result, long t0) {
+            OpenAiProperties.Batch cfg = props.batch();
+            this.batchId = batchId;
+            this.calls = calls;
+            this.ctx = ctx;
+            this.result = result;
+            this.t0 = t0;
+            this.pollMs = (cfg == null ? 30 : Math.max(0, cfg.pollSeconds())) * 1000L;
+            this.maxWaitMs = (cfg == null || cfg.maxWaitMinutes() <= 0 ? 1440 : cfg.maxWaitMinutes()) * 60_000L;
+            this.deadline = System.currentTimeMillis() + maxWaitMs;
+        }
+
+        void schedule(long delayMs) {
+            if (!result.isDone()) next = scheduler.schedule(this, Instant.now().plusMillis(delayMs));
+        }
+
+        void stop() {
+            ScheduledFuture<?> f = next;
+            if (f != null) f.cancel(false);
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) return;
+            BatchEndpoint.BatchStatus status;
+            Map<String, JsonNode> results = null;
+            try {
+                status = endpoint.poll(batchId);
+                if (status.state() == BatchEndpoint.BatchStatus.State.COMPLETED) results = endpoint.results(batchId);
+            } catch (RuntimeException e) {
+                retry(e);
+                return;
+            }
+
+            errors = 0;
+            try {
+                if (status.isTerminal()) {
+                    result.complete(collect(status, results));
+                    return;
+                }
+                log.debug("OpenAI batch poll batchId={} completed={}/{} failed={}",
+                        batchId, status.completed(), status.total(), status.failed());
+                next(pollMs);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void retry(RuntimeException e) {
+            errors++;
+            if (errors >= MAX_POLL_ERRORS) {
+                abandon(batchId, result, new RuntimeException(
+                        "OpenAI batch " + batchId + " could not be polled " + errors + " times in a row", e));
+                return;
+            }
+            long backoffMs = Math.min(MAX_POLL_BACKOFF_MS, Math.max(pollMs, 1000L) << (errors - 1));
+            log.warn("OpenAI batch poll failed batchId={} attempt={} retryInMs={}: {}", batchId, errors, backoffMs, e.toString());
+            next(backoffMs);
+        }
+
+        /** Schedules the next poll unless it would land past the max wait or the job deadline. */
+        private void next(long delayMs) {
+            if (System.currentTimeMillis() + delayMs > deadline) {
+                abandon(batchId, result, new RuntimeException(
+                        "OpenAI batch " + batchId + " did not finish within " + maxWaitMs / 60_000 + " min"));
+            } else if (ctx.remainingMs() <= delayMs) {
+                abandon(batchId, result, ctx.expired());
+            } else {
+                schedule(delayMs);
+            }
+        }
+
+        private Map<String, JsonNode> collect(BatchEndpoint.BatchStatus status, Map<String, JsonNode> results) {
+            if (status.state() != BatchEndpoint.BatchStatus.State.COMPLETED) {
+                throw new RuntimeException("OpenAI batch " + batchId + " ended as " + status.state());
+            }
+
+            for (BatchCall c : calls) {
+                if (!results.containsKey(c.customId())) {
+                    throw new RuntimeException("OpenAI batch " + batchId + " has no result for " + c.customId());
+                }
+            }
+
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            log.info("OpenAI batch done batchId={} calls={} latencyMs={}", batchId, calls.size(), ms);
+            return results;
+        }
+    }
+
+    /** body is the UTF-8 JSON produced by {@link OpenAiClient}'s request body methods. */
+    public record BatchCall(String customId, byte[] body) {}
+}
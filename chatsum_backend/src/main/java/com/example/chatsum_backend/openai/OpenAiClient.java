@@ -4,27 +4,50 @@ import com.example.chatsum_backend.config.OpenAiProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonParser;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 public class OpenAiClient {
     private static final Logger log = LoggerFactory.getLogger(OpenAiClient.class);
+    private static final int ERROR_BODY_MAX_BYTES = 8192;
+    // Floor for adaptive timeouts: a quiet stage with fast history must not time out on a normal slow call
+    private static final long MIN_TIMEOUT_MS = 30_000;
+    // Not worth starting a call with less time than this left before the job deadline
+    private static final long MIN_CALL_MS = 2_000;
+    // Planning estimate for a stage without latency history yet
+    private static final long DEFAULT_EXPECTED_LATENCY_MS = 60_000;
 
     private final OpenAiProperties props;
     private final ObjectMapper om;
+    private final OpenAiMetrics metrics;
+    private final ResponsesRequestWriter writer;
     private final HttpClient http;
 
-    public OpenAiClient(OpenAiProperties props, ObjectMapper om) {
+    public OpenAiClient(OpenAiProperties props, ObjectMapper om, OpenAiMetrics metrics) {
         this.props = props;
         this.om = om;
+        this.metrics = metrics;
+        this.writer = new ResponsesRequestWriter(om);
         this.http = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(props.timeouts().connectSeconds()))
                 .build();
@@ -32,85 +55,44 @@ public class OpenAiClient {
 
     /**
      * Structured Outputs call: returns strict JSON matching the schema.
-     * We ALWAYS use props.model() for the OpenAI model (e.g. "gpt-5.2" from config).
+     * The OpenAI model is picked per stage from config (see {@link #modelFor}).
      */
-    public StructuredHandoff callStructuredHandoff(String instructions, String userContent) {
+    public StructuredHandoff callStructuredHandoff(
+            OpenAiStage stage, String instructions, CharSequence userContent, CallContext ctx) {
         long t0 = System.nanoTime();
         try {
-            // Build a strict JSON schema output (Structured Outputs)
-            String body = """
-            {
-              "model": "%s",
-              "instructions": %s,
-              "input": [
-                { "role": "user", "content": %s }
-              ],
-              "text": {
-                "format": {
-                  "type": "json_schema",
-                  "name": "handoff",
-                  "strict": true,
-                  "schema": {
-                    "type": "object",
-                    "additionalProperties": false,
-                    "properties": {
-                      "handoffSummary": { "type": "string" },
-                      "currentState":   { "type": "string" },
-                      "seedPrompt":     { "type": "string" },
-                      "neededContext":  { "type": "string" }
-                    },
-                    "required": ["handoffSummary","currentState","seedPrompt","neededContext"]
-                  }
-                }
-              }
-            }
-            """.formatted(
-                    props.model(),
-                    om.writeValueAsString(instructions),
-                    om.writeValueAsString(userContent)
-            );
+            ResponsesRequestWriter.Body body =
+                    writer.structured(modelFor(stage), promptCacheKey(stage, instructions), instructions, userContent);
 
             HttpRequest req = HttpRequest.newBuilder()
                     .uri(URI.create("https://api.openai.com/v1/responses"))
-                    .timeout(Duration.ofSeconds(props.timeouts().requestSeconds()))
                     .header("Authorization", "Bearer " + props.apiKey())
                     .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .POST(body.publisher())
                     .build();
 
-            HttpResponse<String> res = sendWithRetry(req);
+            ResponseStreamReader.Parsed res = execute(req, "call", stage, 0, ctx);
             long ms = (System.nanoTime() - t0) / 1_000_000;
 
-            if (res.statusCode() / 100 != 2) {
-                log.error("OpenAI error status={} body={}", res.statusCode(), safeTrim(res.body(), 1200));
-                throw new RuntimeException("OpenAI call failed: HTTP " + res.statusCode());
-            }
+            StructuredHandoff parsed = toStructured(res.outputText());
 
-            JsonNode root = om.readTree(res.body());
-
-            // Structured output lives in output_text; parse it as JSON
-            String outputText = extractOutputText(root);
-            JsonNode parsed = om.readTree(outputText);
-
-            int inputTokens = root.path("usage").path("input_tokens").asInt(0);
-            int outputTokens = root.path("usage").path("output_tokens").asInt(0);
-            BigDecimal cost = estimateCostUsd(inputTokens, outputTokens);
+            OpenAiUsage usage = res.usage();
+            BigDecimal cost = estimateCostUsd(modelFor(stage), usage);
+            metrics.recordSuccess(stage, modelFor(stage), usage, cost, ms);
 
             log.info(
-                    "OpenAI response ok model={} inputTokens={} outputTokens={} estCostUsd={} latencyMs={}",
-                    props.model(), inputTokens, outputTokens, cost, ms
+                    "OpenAI response ok stage={} model={} inputTokens={} cachedInputTokens={} outputTokens={} estCostUsd={} latencyMs={}",
+                    stage.key, modelFor(stage), usage.inputTokens(), usage.cachedInputTokens(), usage.outputTokens(), cost, ms
             );
 
-            return new StructuredHandoff(
-                    parsed.path("handoffSummary").asText(""),
-                    parsed.path("currentState").asText(""),
-                    parsed.path("seedPrompt").asText(""),
-                    parsed.path("neededContext").asText("")
-            );
+            return parsed;
 
+        } catch (CancellationException | DeadlineExceededException e) {
+            throw e; // the job was cancelled or ran out of time, not a failed call
         } catch (Exception e) {
             long ms = (System.nanoTime() - t0) / 1_000_000;
-            log.error("OpenAI call failed latencyMs={} err={}", ms, e.toString());
+            metrics.recordFailure(stage);
+            log.error("OpenAI call failed stage={} latencyMs={} err={}", stage.key, ms, e.toString());
             throw new RuntimeException("OpenAI call failed", e);
         }
     }
@@ -119,83 +101,152 @@ public class OpenAiClient {
      * Plain text call that lets you control max_output_tokens.
      * NOTE: This returns ONLY the assistant output text (not JSON).
      */
-    public String callTextWithMaxOutputTokens(String instructions, String userContent, int maxOutputTokens) {
+    public String callTextWithMaxOutputTokens(
+            OpenAiStage stage, String instructions, CharSequence userContent, int maxOutputTokens, CallContext ctx) {
         long t0 = System.nanoTime();
         try {
-            String body = """
-            {
-              "model": "%s",
-              "instructions": %s,
-              "max_output_tokens": %d,
-              "input": [
-                { "role": "user", "content": %s }
-              ]
-            }
-            """.formatted(
-                    props.model(), // ALWAYS from config (e.g. gpt-5.2)
-                    om.writeValueAsString(instructions),
-                    maxOutputTokens,
-                    om.writeValueAsString(userContent)
-            );
+            ResponsesRequestWriter.Body body = writer.text(
+                    modelFor(stage), promptCacheKey(stage, instructions), instructions, userContent, maxOutputTokens);
 
             HttpRequest req = HttpRequest.newBuilder()
                     .uri(URI.create("https://api.openai.com/v1/responses"))
-                    .timeout(Duration.ofSeconds(120))
                     .header("Authorization", "Bearer " + props.apiKey())
                     .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .POST(body.publisher())
                     .build();
 
-            HttpResponse<String> res = sendWithRetry(req);
+            ResponseStreamReader.Parsed res = execute(req, "callText", stage, maxOutputTokens, ctx);
             long ms = (System.nanoTime() - t0) / 1_000_000;
 
-            if (res.statusCode() / 100 != 2) {
-                log.error("OpenAI callText error status={} body={}", res.statusCode(), safeTrim(res.body(), 1200));
-                throw new RuntimeException("OpenAI callText failed: HTTP " + res.statusCode());
-            }
-
-            JsonNode root = om.readTree(res.body());
-
-            // In Responses API, assistant output text is returned in output[].content[].type=output_text
-            String out = extractOutputText(root);
+            String out = res.outputText();
 
-            int inputTokens = root.path("usage").path("input_tokens").asInt(0);
-            int outputTokens = root.path("usage").path("output_tokens").asInt(0);
-            BigDecimal cost = estimateCostUsd(inputTokens, outputTokens);
+            OpenAiUsage usage = res.usage();
+            BigDecimal cost = estimateCostUsd(modelFor(stage), usage);
+            metrics.recordSuccess(stage, modelFor(stage), usage, cost, ms);
 
             log.info(
-                    "OpenAI text ok model={} maxOutputTokens={} inputTokens={} outputTokens={} estCostUsd={} latencyMs={}",
-                    props.model(), maxOutputTokens, inputTokens, outputTokens, cost, ms
+                    "OpenAI text ok stage={} model={} maxOutputTokens={} inputTokens={} cachedInputTokens={} outputTokens={} estCostUsd={} latencyMs={}",
+                    stage.key, modelFor(stage), maxOutputTokens, usage.inputTokens(), usage.cachedInputTokens(), usage.outputTokens(), cost, ms
             );
 
             return out;
 
+        } catch (CancellationException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             long ms = (System.nanoTime() - t0) / 1_000_000;
-            log.error("OpenAI callText failed latencyMs={} err={}", ms, e.toString());
+            metrics.recordFailure(stage);
+            log.error("OpenAI callText failed stage={} latencyMs={} err={}", stage.key, ms, e.toString());
             throw new RuntimeException("OpenAI callText failed", e);
         }
     }
 
-    private BigDecimal estimateCostUsd(int inputTokens, int outputTokens) {
-        BigDecimal in = BigDecimal.valueOf(inputTokens)
-                .multiply(BigDecimal.valueOf(props.pricing().inputPer1M()))
-                .divide(BigDecimal.valueOf(1_000_000), 10, BigDecimal.ROUND_HALF_UP);
+    /**
+     * Chunk summary call: plain Markdown under an output cap instead of the four-field handoff schema.
+     * Chunk calls only ever used handoffSummary, so the model was spending output tokens on the other three.
+     */
+    public String callChunkSummary(String instructions, CharSequence userContent, int maxOutputTokens, CallContext ctx) {
+        return parseChunkSummary(callTextWithMaxOutputTokens(OpenAiStage.CHUNK, instructions, userContent, maxOutputTokens, ctx));
+    }
+
+    /**
+     * Normalizes a chunk summary: models sometimes wrap Markdown in a ```markdown fence.
+     */
+    public static String parseChunkSummary(String text) {
+        if (text == null) return "";
+        String t = text.strip();
+        if (t.startsWith("```")) {
+            int firstNl = t.indexOf('\n');
+            int lastFence = t.lastIndexOf("```");
+            if (firstNl > 0 && lastFence > firstNl) t = t.substring(firstNl + 1, lastFence).strip();
+        }
+        return t;
+    }
+
+    /**
+     * Responses API body for a Structured Outputs call (strict handoff schema), as UTF-8 JSON.
+     * Used as the per-line body of deferred batch requests; trimmed to size since batches hold on to it.
+     * The model is picked per stage from config (see {@link #modelFor}).
+     */
+    public byte[] structuredRequestBody(OpenAiStage stage, String instructions, CharSequence userContent) {
+        return writer.structured(modelFor(stage), promptCacheKey(stage, instructions), instructions, userContent)
+                .toByteArray();
+    }
+
+    /**
+     * Responses API body for a plain text call with a max_output_tokens cap, as UTF-8 JSON.
+     */
+    public byte[] textRequestBody(OpenAiStage stage, String instructions, CharSequence userContent, int maxOutputTokens) {
+        return writer.text(modelFor(stage), promptCacheKey(stage, instructions), instructions, userContent, maxOutputTokens)
+                .toByteArray();
+    }
 
-        BigDecimal out = BigDecimal.valueOf(outputTokens)
-                .multiply(BigDecimal.valueOf(props.pricing().outputPer1M()))
-                .divide(BigDecimal.valueOf(1_000_000), 10, BigDecimal.ROUND_HALF_UP);
+    /**
+     * Structured output lives in output_text; parse it as JSON.
+     * Used for batch results, which arrive as already-parsed response bodies.
+     */
+    public StructuredHandoff parseStructured(JsonNode root) {
+        return toStructured(extractOutputText(root));
+    }
 
-        return in.add(out).setScale(6, BigDecimal.ROUND_HALF_UP);
+    /**
+     * In Responses API, assistant output text is returned in output[].content[].type=output_text
+     */
+    public String parseText(JsonNode root) {
+        return extractOutputText(root);
+    }
+
+    /**
+     * Routes calls that share the same static instructions to the same cache shard.
+     * Derived from the instruction text itself, so a prompt change automatically starts a new key.
+     */
+    static String promptCacheKey(OpenAiStage stage, String instructions) {
+        return "chatsum-" + stage.key + "-" + Integer.toHexString(instructions.hashCode());
+    }
+
+    /**
+     * Stage routing: openai.models.{chunk,merge,seed} when set, otherwise openai.model.
+     */
+    public String modelFor(OpenAiStage stage) {
+        OpenAiProperties.Models m = props.models();
+        String override = m == null ? null : switch (stage) {
+            case CHUNK -> m.chunk();
+            case MERGE -> m.merge();
+            case SEED -> m.seed();
+        };
+        return override == null || override.isBlank() ? props.model() : override;
+    }
+
+    public BigDecimal estimateCostUsd(String model, OpenAiUsage usage) {
+        OpenAiProperties.Pricing p = props.pricingFor(model);
+        // Cached input tokens are billed at the discounted rate (falls back to the full rate if unset)
+        double cachedPer1M = p.cachedInputPer1M() > 0 ? p.cachedInputPer1M() : p.inputPer1M();
+        int uncached = usage.inputTokens() - usage.cachedInputTokens();
+
+        BigDecimal in = BigDecimal.valueOf(uncached)
+                .multiply(BigDecimal.valueOf(p.inputPer1M()))
+                .add(BigDecimal.valueOf(usage.cachedInputTokens()).multiply(BigDecimal.valueOf(cachedPer1M)))
+                .divide(BigDecimal.valueOf(1_000_000), 10, RoundingMode.HALF_UP);
+
+        BigDecimal out = BigDecimal.valueOf(usage.outputTokens())
+                .multiply(BigDecimal.valueOf(p.outputPer1M()))
+                .divide(BigDecimal.valueOf(1_000_000), 10, RoundingMode.HALF_UP);
+
+        return in.add(out).setScale(6, RoundingMode.HALF_UP);
+    }
+
+    /** Binds the schema output straight onto the record, no intermediate tree. */
+    private StructuredHandoff toStructured(String outputText) {
+        return om.readValue(outputText, StructuredHandoff.class);
     }
 
     private static String extractOutputText(JsonNode root) {
         // Walk: output[] -> content[] -> where type == "output_text"
         for (JsonNode item : root.path("output")) {
-            if (!"message".equals(item.path("type").asText())) continue;
+            if (!"message".equals(item.path("type").asString(""))) continue;
             for (JsonNode c : item.path("content")) {
-                if ("output_text".equals(c.path("type").asText())) {
-                    return c.path("text").asText();
+                if ("output_text".equals(c.path("type").asString(""))) {
+                    return c.path("text").asString("");
                 }
             }
         }
@@ -207,26 +258,205 @@ public class OpenAiClient {
         return s.length() <= max ? s : s.substring(0, max) + "...";
     }
 
-    private HttpResponse<String> sendWithRetry(HttpRequest req) throws Exception {
+    /**
+     * Sends the request and reads the body as a stream: on 2xx only output_text and usage are pulled out
+     * (see {@link ResponseStreamReader}), so the full response is never held as a String or a tree.
+     * Error bodies are small and only logged, so those are read as text.
+     * Cancelling ctx while the body streams closes it, which aborts the exchange.
+     */
+    private ResponseStreamReader.Parsed execute(
+            HttpRequest req, String kind, OpenAiStage stage, int expectedOutputTokens, CallContext ctx) throws Exception {
+        HttpResponse<InputStream> res = sendWithRetry(req, stage, callTimeoutMs(stage, expectedOutputTokens), ctx);
+        try (InputStream in = res.body()) {
+            CallContext.Registration abort = ctx.onCancel(() -> closeQuietly(in));
+            try {
+                if (res.statusCode() / 100 != 2) {
+                    String err = new String(in.readNBytes(ERROR_BODY_MAX_BYTES), StandardCharsets.UTF_8);
+                    log.error("OpenAI {} error status={} body={}", kind, res.statusCode(), safeTrim(err, 1200));
+                    throw new RuntimeException("OpenAI " + kind + " failed: HTTP " + res.statusCode());
+                }
+                try (JsonParser p = om.createParser(in)) {
+                    return ResponseStreamReader.read(p);
+                }
+            } finally {
+                abort.close();
+            }
+        } catch (Exception e) {
+            // a read failing because the stream was closed under it is the cancellation, not an error
+            ctx.throwIfCancelled();
+            throw e;
+        }
+    }
+
+    /**
+     * Typical (p95) latency of a stage's calls, for deciding whether another call still fits a job deadline.
+     */
+    public long expectedLatencyMs(OpenAiStage stage) {
+        return metrics.p95LatencyMs(stage).orElse(DEFAULT_EXPECTED_LATENCY_MS);
+    }
+
+    /**
+     * Adaptive once the stage has latency history (see {@link OpenAiMetrics#suggestTimeoutMs}), otherwise
+     * openai.timeouts.request-seconds, which also stays the upper bound.
+     */
+    private long callTimeoutMs(OpenAiStage stage, int expectedOutputTokens) {
+        long maxMs = props.timeouts().requestSeconds() * 1000L;
+        long adaptive = metrics.suggestTimeoutMs(stage, expectedOutputTokens).orElse(maxMs);
+        return Math.max(Math.min(MIN_TIMEOUT_MS, maxMs), Math.min(maxMs, adaptive));
+    }
+
+    /**
+     * sendAsync + get instead of send: cancelling the returned future is what aborts an exchange
+     * that is still waiting for response headers.
+     * Each attempt gets the per-call timeout cut to what is left of the job deadline; a timed-out attempt
+     * is retried with double the timeout, since the adaptive one may simply have been too tight.
+     */
+    private HttpResponse<InputStream> sendWithRetry(
+            HttpRequest req, OpenAiStage stage, long timeoutMs, CallContext ctx) throws Exception {
         int maxAttempts = 3;
         long backoffMs = 500;
+        long maxTimeoutMs = Math.max(timeoutMs, props.timeouts().requestSeconds() * 1000L);
 
         for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            ctx.throwIfCancelled();
+            long remainingMs = ctx.remainingMs();
+            if (remainingMs < MIN_CALL_MS) throw ctx.expired();
+
+            HttpRequest timed = HttpRequest.newBuilder(req, (name, value) -> true)
+                    .timeout(Duration.ofMillis(Math.min(timeoutMs, remainingMs)))
+                    .build();
             try {
-                return http.send(req, HttpResponse.BodyHandlers.ofString());
-            } catch (java.net.http.HttpTimeoutException e) {
-                if (attempt == maxAttempts) throw e;
-                Thread.sleep(backoffMs);
+                return exchange(timed, stage, ctx);
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof java.net.http.HttpTimeoutException timeout)) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+                if (ctx.remainingMs() < MIN_CALL_MS) throw ctx.expired();
+                if (attempt == maxAttempts) throw timeout;
+                ctx.sleep(backoffMs);
                 backoffMs *= 2;
+                timeoutMs = Math.min(maxTimeoutMs, timeoutMs * 2);
             }
         }
         throw new IllegalStateException("unreachable");
     }
 
+    /**
+     * One attempt. On hedged stages, once the exchange has taken longer than the p95 of its size class
+     * (and the hedge budget allows), a duplicate goes out; the first response wins and the other is aborted.
+     * Only chunk calls are hedged: merge and seed are single calls over the whole job, where a duplicate
+     * would double the largest cost.
+     * The latency recorded for the size class is always the primary's own: a hedge answering first
+     * would otherwise pull the p95, and with it the hedge delay, down.
+     */
+    private HttpResponse<InputStream> exchange(HttpRequest req, OpenAiStage stage, CallContext ctx) throws Exception {
+        long bodyBytes = req.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+        int sizeClass = OpenAiMetrics.sizeClass(bodyBytes);
+        long hedgeAfterMs = hedgeAfterMs(stage, sizeClass);
+
+        long t0 = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> primary = http.sendAsync(req, HttpResponse.BodyHandlers.ofInputStream());
+        primary.thenRun(() -> metrics.recordExchange(stage, sizeClass, (System.nanoTime() - t0) / 1_000_000));
+        HttpResponse<InputStream> res;
+        CallContext.Registration abort = ctx.onCancel(() -> primary.cancel(true));
+        try {
+            if (hedgeAfterMs < 0) {
+                res = primary.get();
+            } else {
+                try {
+                    res = primary.get(hedgeAfterMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException slow) {
+                    res = metrics.tryHedge(stage, props.hedging().budgetRatio())
+                            ? hedged(req, primary, stage, ctx)
+                            : primary.get();
+                }
+            }
+        } finally {
+            abort.close();
+        }
+        return res;
+    }
+
+    /** -1 = don't hedge (disabled, not a chunk call, or no latency history for the size class yet). */
+    private long hedgeAfterMs(OpenAiStage stage, int sizeClass) {
+        OpenAiProperties.Hedging h = props.hedging();
+        if (h == null || !h.enabled() || stage != OpenAiStage.CHUNK) return -1;
+        OptionalLong p95 = metrics.p95ExchangeMs(stage, sizeClass);
+        return p95.isPresent() ? Math.max(h.minDelayMs(), p95.getAsLong()) : -1;
+    }
+
+    private HttpResponse<InputStream> hedged(
+            HttpRequest req,
+            CompletableFuture<HttpResponse<InputStream>> primary,
+            OpenAiStage stage,
+            CallContext ctx
+    ) throws Exception {
+        log.debug("OpenAI hedge sent stage={}", stage.key);
+        CompletableFuture<HttpResponse<InputStream>> hedge = http.sendAsync(req, HttpResponse.BodyHandlers.ofInputStream());
+        CompletableFuture<Answer> first = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        primary.whenComplete((res, err) -> settle(first, res, err, false, failed));
+        hedge.whenComplete((res, err) -> settle(first, res, err, true, failed));
+
+        CallContext.Registration abort = ctx.onCancel(() -> hedge.cancel(true));
+        try {
+            Answer answer = first.get();
+            metrics.recordHedge(stage, answer.hedge());
+            return answer.res();
+        } finally {
+            abort.close();
+            // abort the losing hedge (a no-op on a winner, which is already complete). A losing primary is
+            // left to reach its response headers, bounded by the request timeout, so its latency is still
+            // recorded; settle closes it then. It is only aborted when nothing answered.
+            hedge.cancel(true);
+            if (!first.isDone() || first.isCompletedExceptionally()) primary.cancel(true);
+        }
+    }
+
+    /** The winning response and whether it came from the hedge rather than the primary. */
+    record Answer(HttpResponse<InputStream> res, boolean hedge) {}
+
+    /**
+     * The first successful response completes {@code first}, which decides the winner atomically;
+     * an error only once both exchanges failed.
+     */
+    static void settle(
+            CompletableFuture<Answer> first,
+            HttpResponse<InputStream> res,
+            Throwable err,
+            boolean hedge,
+            AtomicInteger failed
+    ) {
+        if (err != null) {
+            Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+            if (failed.incrementAndGet() == 2) first.completeExceptionally(cause);
+            return;
+        }
+        if (!first.complete(new Answer(res, hedge))) {
+            closeQuietly(res.body()); // the loser answered as well: release its connection
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (Exception ignored) {
+            // aborting anyway
+        }
+    }
+
     public record StructuredHandoff(
             String handoffSummary,
             String currentState,
             String seedPrompt,
             String neededContext
-    ) {}
+    ) {
+        public StructuredHandoff {
+            // strict schema makes every field required, but keep the old asText("") leniency
+            handoffSummary = handoffSummary == null ? "" : handoffSummary;
+            currentState = currentState == null ? "" : currentState;
+            seedPrompt = seedPrompt == null ? "" : seedPrompt;
+            neededContext = neededContext == null ? "" : neededContext;
+        }
+    }
 }
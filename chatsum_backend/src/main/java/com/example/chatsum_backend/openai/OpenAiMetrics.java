@@ -0,0 +1,239 @@
+package com.example.chatsum_backend.openai;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process counters for OpenAI calls, per pipeline stage. Exposed via the "openai" actuator endpoint.
+ * Together with per-stage model routing this is what we tune cost vs quality with: compare
+ * estCostUsd / avgLatencyMs per stage before and after switching a stage's model.
+ *
+ * The last calls per stage are also kept in a small reservoir; its latency percentiles drive the
+ * adaptive per-call timeouts (see {@link #suggestTimeoutMs}).
+ */
+@Component
+public class OpenAiMetrics {
+
+    private static final int RESERVOIR_SIZE = 512;
+    private static final int MIN_SAMPLES = 20;
+    // Headroom over the observed p99, so only real outliers hit the timeout
+    private static final double TIMEOUT_FACTOR = 1.5;
+    // Below this many output tokens the time is mostly queueing + time-to-first-token, not generation
+    private static final int MIN_RATE_TOKENS = 100;
+
+    // Request body size classes for exchange latency: <8 KB, <32 KB, <128 KB, larger
+    private static final int SIZE_CLASSES = 4;
+    // Hedges allowed on top of the budget ratio, so the first slow calls can be hedged at all
+    private static final int HEDGE_BURST = 2;
+
+    private final Map<OpenAiStage, StageStats> stages = new EnumMap<>(OpenAiStage.class);
+
+    public OpenAiMetrics() {
+        for (OpenAiStage s : OpenAiStage.values()) stages.put(s, new StageStats());
+    }
+
+    public void recordSuccess(OpenAiStage stage, String model, OpenAiUsage usage, BigDecimal costUsd, long latencyMs) {
+        StageStats s = stages.get(stage);
+        s.model = model;
+        s.calls.increment();
+        s.inputTokens.add(usage.inputTokens());
+        s.cachedInputTokens.add(usage.cachedInputTokens());
+        s.outputTokens.add(usage.outputTokens());
+        s.latencyMs.add(latencyMs);
+        s.costMicroUsd.add(costUsd.movePointRight(6).longValue());
+        s.recent.add(latencyMs, usage.outputTokens());
+    }
+
+    /**
+     * Timeout for the next call of a stage: the observed p99 latency, plus generation time at the p95
+     * per-token rate for output beyond the usual p99 output size, with headroom.
+     * Empty until the stage has enough samples.
+     *
+     * @param expectedOutputTokens worst-case output of this call (its max_output_tokens), 0 if unknown
+     */
+    public OptionalLong suggestTimeoutMs(OpenAiStage stage, int expectedOutputTokens) {
+        Reservoir.Percentiles p = stages.get(stage).recent.percentiles();
+        if (p == null) return OptionalLong.empty();
+        double extraTokens = Math.max(0, expectedOutputTokens - p.p99OutputTokens());
+        return OptionalLong.of((long) (TIMEOUT_FACTOR * (p.p99LatencyMs() + extraTokens * p.p95MsPerToken())));
+    }
+
+    /** Request body size class for {@link #recordExchange}: latency grows with input size. */
+    public static int sizeClass(long bodyBytes) {
+        int c = 0;
+        for (long limit = 8 * 1024; c < SIZE_CLASSES - 1 && bodyBytes >= limit; limit *= 4) c++;
+        return c;
+    }
+
+    /** Time until response headers of a primary attempt; never a hedge's, which would pull the p95 down. */
+    public void recordExchange(OpenAiStage stage, int sizeClass, long latencyMs) {
+        StageStats s = stages.get(stage);
+        s.exchanges.increment();
+        s.exchangeLatency[sizeClass].add(latencyMs, 0);
+    }
+
+    /** When to hedge an exchange of this size class; empty until the class has enough samples. */
+    public OptionalLong p95ExchangeMs(OpenAiStage stage, int sizeClass) {
+        Reservoir.Percentiles p = stages.get(stage).exchangeLatency[sizeClass].percentiles();
+        return p == null ? OptionalLong.empty() : OptionalLong.of(p.p95LatencyMs());
+    }
+
+    /**
+     * Takes one hedge from the stage's budget: at most budgetRatio of its exchanges (plus a small burst).
+     * @return false if the budget is spent; no duplicate should be sent then
+     */
+    public boolean tryHedge(OpenAiStage stage, double budgetRatio) {
+        StageStats s = stages.get(stage);
+        synchronized (s) {
+            if (s.hedges.sum() >= budgetRatio * s.exchanges.sum() + HEDGE_BURST) return false;
+            s.hedges.increment();
+            return true;
+        }
+    }
+
+    /** @param won the duplicate answered before the original */
+    public void recordHedge(OpenAiStage stage, boolean won) {
+        if (won) stages.get(stage).hedgeWins.increment();
+    }
+
+    /** Typical (p95) latency of a stage, e.g. to decide whether a call still fits a deadline. */
+    public OptionalLong p95LatencyMs(OpenAiStage stage) {
+        Reservoir.Percentiles p = stages.get(stage).recent.percentiles();
+        return p == null ? OptionalLong.empty() : OptionalLong.of(p.p95LatencyMs());
+    }
+
+    public void recordFailure(OpenAiStage stage) {
+        stages.get(stage).failures.increment();
+    }
+
+    public StageSnapshot snapshot(OpenAiStage stage) {
+        return stages.get(stage).snapshot();
+    }
+
+    public Map<String, StageSnapshot> snapshot() {
+        Map<String, StageSnapshot> out = new LinkedHashMap<>();
+        stages.forEach((stage, s) -> out.put(stage.key, s.snapshot()));
+        return out;
+    }
+
+    private static final class StageStats {
+        volatile String model;
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder inputTokens = new LongAdder();
+        final LongAdder cachedInputTokens = new LongAdder();
+        final LongAdder outputTokens = new LongAdder();
+        final LongAdder latencyMs = new LongAdder();
+        final LongAdder costMicroUsd = new LongAdder();
+        final Reservoir recent = new Reservoir();
+        final LongAdder exchanges = new LongAdder();
+        final LongAdder hedges = new LongAdder();
+        final LongAdder hedgeWins = new LongAdder();
+        final Reservoir[] exchangeLatency = new Reservoir[SIZE_CLASSES];
+
+        StageStats() {
+            for (int i = 0; i < SIZE_CLASSES; i++) exchangeLatency[i] = new Reservoir();
+        }
+
+        StageSnapshot snapshot() {
+            long n = calls.sum();
+            long in = inputTokens.sum();
+            long cached = cachedInputTokens.sum();
+            long out = outputTokens.sum();
+            Reservoir.Percentiles p = recent.percentiles();
+            long ex = exchanges.sum();
+            long h = hedges.sum();
+            return new StageSnapshot(
+                    model,
+                    n,
+                    failures.sum(),
+                    in,
+                    cached,
+                    in == 0 ? 0.0 : (double) cached / in,
+                    out,
+                    n == 0 ? 0 : out / n,
+                    n == 0 ? 0 : latencyMs.sum() / n,
+                    p == null ? 0 : p.p50LatencyMs(),
+                    p == null ? 0 : p.p95LatencyMs(),
+                    p == null ? 0 : p.p99LatencyMs(),
+                    h,
+                    ex == 0 ? 0.0 : (double) h / ex,
+                    h == 0 ? 0.0 : (double) hedgeWins.sum() / h,
+                    BigDecimal.valueOf(costMicroUsd.sum()).movePointLeft(6).setScale(6, RoundingMode.HALF_UP)
+            );
+        }
+    }
+
+    public record StageSnapshot(
+            String model,
+            long calls,
+            long failures,
+            long inputTokens,
+            long cachedInputTokens,
+            double cacheHitRatio,
+            long outputTokens,
+            long avgOutputTokensPerCall,
+            long avgLatencyMs,
+            long p50LatencyMs,
+            long p95LatencyMs,
+            long p99LatencyMs,
+            long hedges,
+            double hedgeRate,
+            double hedgeWinRate,
+            BigDecimal estCostUsd
+    ) {}
+
+    /** Ring buffer of the last calls; percentiles are computed on demand (a sort of at most 512 values). */
+    private static final class Reservoir {
+        private final long[] latencyMs = new long[RESERVOIR_SIZE];
+        private final int[] outputTokens = new int[RESERVOIR_SIZE];
+        private int next;
+        private int size;
+
+        record Percentiles(long p50LatencyMs, long p95LatencyMs, long p99LatencyMs, long p99OutputTokens, double p95MsPerToken) {}
+
+        synchronized void add(long ms, int outTokens) {
+            latencyMs[next] = ms;
+            outputTokens[next] = outTokens;
+            next = (next + 1) % RESERVOIR_SIZE;
+            if (size < RESERVOIR_SIZE) size++;
+        }
+
+        /** null until there are enough samples to trust the tail. */
+        Percentiles percentiles() {
+            long[] lat;
+            long[] out;
+            double[] rate;
+            synchronized (this) {
+                if (size < MIN_SAMPLES) return null;
+                lat = Arrays.copyOf(latencyMs, size);
+                out = new long[size];
+                rate = new double[size];
+                for (int i = 0; i < size; i++) {
+                    out[i] = outputTokens[i];
+                    rate[i] = (double) latencyMs[i] / Math.max(MIN_RATE_TOKENS, outputTokens[i]);
+                }
+            }
+            Arrays.sort(lat);
+            Arrays.sort(out);
+            Arrays.sort(rate);
+            return new Percentiles(at(lat, 0.50), at(lat, 0.95), at(lat, 0.99), at(out, 0.99), rate[index(rate.length, 0.95)]);
+        }
+
+        private static long at(long[] sorted, double q) {
+            return sorted[index(sorted.length, q)];
+        }
+
+        private static int index(int n, double q) {
+            return Math.min(n - 1, (int) Math.ceil(q * n) - 1);
+        }
+    }
+}
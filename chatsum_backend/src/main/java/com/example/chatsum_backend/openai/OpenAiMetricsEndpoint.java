@@ -0,0 +1,26 @@
+package com.example.chatsum_backend.openai;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/openai — per-stage token usage (incl. prompt-cache hits), cost and latency.
+ */
+@Component
+@Endpoint(id = "openai")
+public class OpenAiMetricsEndpoint {
+
+    private final OpenAiMetrics metrics;
+
+    public OpenAiMetricsEndpoint(OpenAiMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ReadOperation
+    public Map<String, OpenAiMetrics.StageSnapshot> stages() {
+        return metrics.snapshot();
+    }
+}
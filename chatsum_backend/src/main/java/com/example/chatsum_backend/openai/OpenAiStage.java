@@ -0,0 +1,16 @@
+package com.example.chatsum_backend.openai;
+
+/**
+ * Pipeline stage an OpenAI call belongs to. Used for prompt-cache routing and per-stage metrics.
+ */
+public enum OpenAiStage {
+    CHUNK("chunk"),
+    MERGE("merge"),
+    SEED("seed");
+
+    public final String key;
+
+    OpenAiStage(String key) {
+        this.key = key;
+    }
+}
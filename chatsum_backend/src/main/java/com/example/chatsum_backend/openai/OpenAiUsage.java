@@ -0,0 +1,18 @@
+package com.example.chatsum_backend.openai;
+
+import tools.jackson.databind.JsonNode;
+
+/**
+ * Token usage of one Responses API call. cachedInputTokens is the part of inputTokens served
+ * from the provider prompt cache (usage.input_tokens_details.cached_tokens).
+ */
+public record OpenAiUsage(int inputTokens, int cachedInputTokens, int outputTokens) {
+
+    public static OpenAiUsage from(JsonNode usage) {
+        return new OpenAiUsage(
+                usage.path("input_tokens").asInt(0),
+                usage.path("input_tokens_details").path("cached_tokens").asInt(0),
+                usage.path("output_tokens").asInt(0)
+        );
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.chatsum_backend.openai;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+
+/**
+ * Pulls only what we use out of a Responses API body, token by token:
+ * the first output[].content[] entry with type=output_text (inside a type=message item) and usage.
+ * Everything else (reasoning items, annotations, metadata) is skipped without being materialized.
+ */
+final class ResponseStreamReader {
+
+    record Parsed(String outputText, OpenAiUsage usage) {}
+
+    static Parsed read(JsonParser p) {
+        if (p.nextToken() != JsonToken.START_OBJECT) {
+            throw new RuntimeException("OpenAI response is not a JSON object");
+        }
+
+        String text = null;
+        OpenAiUsage usage = new OpenAiUsage(0, 0, 0);
+
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "output" -> {
+                    String t = readOutput(p, value);
+                    if (text == null) text = t;
+                }
+                case "usage" -> usage = readUsage(p, value);
+                default -> p.skipChildren();
+            }
+        }
+
+        if (text == null) throw new RuntimeException("No output_text found in OpenAI response");
+        return new Parsed(text, usage);
+    }
+
+    private static String readOutput(JsonParser p, JsonToken value) {
+        if (value != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return null;
+        }
+        String found = null;
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (t != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            String itemText = readItem(p);
+            if (found == null) found = itemText;
+        }
+        return found;
+    }
+
+    /** Field order inside an item is not guaranteed, so decide on "type" once the item is closed. */
+    private static String readItem(JsonParser p) {
+        String type = null;
+        String text = null;
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "type" -> type = value == JsonToken.VALUE_STRING ? p.getString() : null;
+                case "content" -> text = readContent(p, value);
+                default -> p.skipChildren();
+            }
+        }
+        return "message".equals(type) ? text : null;
+    }
+
+    private static String readContent(JsonParser p, JsonToken value) {
+        if (value != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return null;
+        }
+        String found = null;
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (t != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            String type = null;
+            String text = null;
+            while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+                String field = p.currentName();
+                JsonToken v = p.nextToken();
+                if ("type".equals(field) && v == JsonToken.VALUE_STRING) type = p.getString();
+                else if ("text".equals(field) && v == JsonToken.VALUE_STRING) text = p.getString();
+                else p.skipChildren();
+            }
+            if (found == null && "output_text".equals(type)) found = text;
+        }
+        return found;
+    }
+
+    private static OpenAiUsage readUsage(JsonParser p, JsonToken value) {
+        if (value != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return new OpenAiUsage(0, 0, 0);
+        }
+        int input = 0;
+        int cached = 0;
+        int output = 0;
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String field = p.currentName();
+            JsonToken v = p.nextToken();
+            switch (field) {
+                case "input_tokens" -> input = intOrZero(p, v);
+                case "output_tokens" -> output = intOrZero(p, v);
+                case "input_tokens_details" -> {
+                    if (v != JsonToken.START_OBJECT) {
+                        p.skipChildren();
+                        break;
+                    }
+                    while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+                        String d = p.currentName();
+                        JsonToken dv = p.nextToken();
+                        if ("cached_tokens".equals(d)) cached = intOrZero(p, dv);
+                        else p.skipChildren();
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        return new OpenAiUsage(input, cached, output);
+    }
+
+    private static int intOrZero(JsonParser p, JsonToken v) {
+        if (v == JsonToken.VALUE_NUMBER_INT) return p.getIntValue();
+        p.skipChildren();
+        return 0;
+    }
+
+    private ResponseStreamReader() {}
+}
@@ -0,0 +1,130 @@
+package com.example.chatsum_backend.openai;
+
+import com.example.chatsum_backend.domain.CompositeText;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpRequest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes Responses API request bodies straight to UTF-8 bytes with a JsonGenerator.
+ *
+ * Everything that does not change between calls is encoded once: property names, the strict handoff
+ * schema (written as a raw value) and the escaped instruction strings. Only the user content is escaped
+ * per call, directly into the output buffer, so no intermediate String of the body is ever built.
+ * User content may be a {@link CompositeText} view (rendered chunks); it is streamed, not materialized.
+ * The body is handed to the HTTP client in the buffer it was written to (see {@link Body#publisher()}).
+ * Keys always go out in the same order, model and prompt_cache_key first, so calls of one stage with the
+ * same instructions share a byte-identical, cacheable prefix.
+ */
+final class ResponsesRequestWriter {
+
+    private static final SerializableString MODEL = new SerializedString("model");
+    private static final SerializableString PROMPT_CACHE_KEY = new SerializedString("prompt_cache_key");
+    private static final SerializableString INSTRUCTIONS = new SerializedString("instructions");
+    private static final SerializableString MAX_OUTPUT_TOKENS = new SerializedString("max_output_tokens");
+    private static final SerializableString INPUT = new SerializedString("input");
+    private static final SerializableString ROLE = new SerializedString("role");
+    private static final SerializableString USER = new SerializedString("user");
+    private static final SerializableString CONTENT = new SerializedString("content");
+    private static final SerializableString TEXT = new SerializedString("text");
+
+    private static final SerializableString HANDOFF_TEXT_FORMAT = new SerializedString(
+            "{\"format\":{\"type\":\"json_schema\",\"name\":\"handoff\",\"strict\":true,"
+                    + "\"schema\":{\"type\":\"object\",\"additionalProperties\":false,"
+                    + "\"properties\":{"
+                    + "\"handoffSummary\":{\"type\":\"string\"},"
+                    + "\"currentState\":{\"type\":\"string\"},"
+                    + "\"seedPrompt\":{\"type\":\"string\"},"
+                    + "\"neededContext\":{\"type\":\"string\"}},"
+                    + "\"required\":[\"handoffSummary\",\"currentState\",\"seedPrompt\",\"neededContext\"]}}}"
+    );
+
+    // Instructions are a handful of constants; cap the cache in case a caller ever passes dynamic ones
+    private static final int MAX_CACHED_INSTRUCTIONS = 64;
+
+    private final ObjectMapper om;
+    private final Map<String, SerializableString> encodedInstructions = new ConcurrentHashMap<>();
+
+    ResponsesRequestWriter(ObjectMapper om) {
+        this.om = om;
+    }
+
+    /** A written body, still in the buffer it was written to. */
+    static final class Body extends ByteArrayOutputStream {
+        Body(int size) {
+            super(size);
+        }
+
+        /** Publishes the buffer as is: no copy of a body that may be several MB. */
+        HttpRequest.BodyPublisher publisher() {
+            return HttpRequest.BodyPublishers.ofByteArray(buf, 0, count);
+        }
+    }
+
+    Body structured(String model, String promptCacheKey, String instructions, CharSequence userContent) {
+        return write(model, promptCacheKey, instructions, userContent, -1, true);
+    }
+
+    Body text(String model, String promptCacheKey, String instructions, CharSequence userContent, int maxOutputTokens) {
+        return write(model, promptCacheKey, instructions, userContent, maxOutputTokens, false);
+    }
+
+    private Body write(String model, String promptCacheKey, String instructions, CharSequence userContent,
+                       int maxOutputTokens, boolean structured) {
+        // ASCII-heavy content is ~1 byte per char; the 1/8 headroom covers the usual quotes and newline
+        // escapes, so a typical body is written without the buffer doubling (and copying) at the end
+        int chars = instructions.length() + userContent.length();
+        Body out = new Body(chars + chars / 8 + 1024);
+
+        try (JsonGenerator g = om.createGenerator(out)) {
+            g.writeStartObject();
+            g.writeName(MODEL);
+            g.writeString(model);
+            g.writeName(PROMPT_CACHE_KEY);
+            g.writeString(promptCacheKey);
+            g.writeName(INSTRUCTIONS);
+            g.writeString(encoded(instructions));
+            if (maxOutputTokens >= 0) {
+                g.writeName(MAX_OUTPUT_TOKENS);
+                g.writeNumber(maxOutputTokens);
+            }
+
+            g.writeName(INPUT);
+            g.writeStartArray();
+            g.writeStartObject();
+            g.writeName(ROLE);
+            g.writeString(USER);
+            g.writeName(CONTENT);
+            if (userContent instanceof String str) {
+                g.writeString(str);
+            } else {
+                // Composite/span views are escaped straight from the transcript into the body
+                g.writeString(CompositeText.reader(userContent), userContent.length());
+            }
+            g.writeEndObject();
+            g.writeEndArray();
+
+            if (structured) {
+                g.writeName(TEXT);
+                g.writeRawValue(HANDOFF_TEXT_FORMAT);
+            }
+            g.writeEndObject();
+        }
+        return out;
+    }
+
+    private SerializableString encoded(String instructions) {
+        SerializableString s = encodedInstructions.get(instructions);
+        if (s != null) return s;
+
+        s = new SerializedString(instructions);
+        if (encodedInstructions.size() < MAX_CACHED_INSTRUCTIONS) encodedInstructions.putIfAbsent(instructions, s);
+        return s;
+    }
+}
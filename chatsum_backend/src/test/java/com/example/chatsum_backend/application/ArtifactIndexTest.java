@@ -0,0 +1,41 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactIndexTest {
+
+    @Test
+    void build_indexesAllKindsInOnePass_andPicksRecentFilesAsMustHave() {
+        List<ChatTurn> turns = List.of(
+                new ChatTurn(ChatTurn.Role.USER,
+                        "POST /api/handoff returns 500, see https://docs.spring.io/spring-boot/index.html. "
+                                + "Setting app.handoff.speculative-seed in application.yml did not help."),
+                new ChatTurn(ChatTurn.Role.ASSISTANT,
+                        "```java\npublic class HandoffService {}\n```\nHandoffService calls OpenAiClient.java."),
+                new ChatTurn(ChatTurn.Role.USER, "Still failing in HandoffService.")
+        );
+
+        ArtifactIndex index = ArtifactIndex.build(turns);
+
+        assertThat(index.artifacts())
+                .extracting(a -> a.kind() + " " + a.name())
+                .contains(
+                        "ENDPOINT POST /api/handoff",
+                        "URL https://docs.spring.io/spring-boot/index.html",
+                        "CONFIG app.handoff.speculative-seed",
+                        "FILE application.yml",
+                        "FILE OpenAiClient.java",
+                        "TYPE HandoffService"
+                )
+                .doesNotContain("FILE index.html", "TYPE OpenAiClient");
+        assertThat(index.mustHave()).extracting(ArtifactIndex.Artifact::name)
+                .containsExactly("HandoffService", "OpenAiClient.java", "application.yml");
+        assertThat(index.render()).contains("- Files/config:", "`app.handoff.speculative-seed`");
+        assertThat(index.pasteNext()).startsWith("## 📌 Paste next").contains("1) **HandoffService**");
+    }
+}
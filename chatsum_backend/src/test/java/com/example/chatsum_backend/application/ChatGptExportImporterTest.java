@@ -0,0 +1,129 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatGptExportImporterTest {
+
+    private final ChatGptExportImporter importer = new ChatGptExportImporter(new ObjectMapper());
+
+    private static final String EXPORT = """
+            [
+              {
+                "title": "Spring handoff",
+                "mapping": {
+                  "root": { "id": "root", "message": null, "parent": null, "children": ["sys"] },
+                  "sys":  { "id": "sys", "parent": "root", "children": ["u1"],
+                            "message": { "author": { "role": "system" },
+                                         "content": { "content_type": "text", "parts": [""] },
+                                         "metadata": { "is_visually_hidden_from_conversation": true } } },
+                  "u1":   { "id": "u1", "parent": "sys", "children": ["a1", "a1b"],
+                            "message": { "author": { "role": "user" },
+                                         "content": { "content_type": "text", "parts": ["Fix HandoffService"] } } },
+                  "a1":   { "id": "a1", "parent": "u1", "children": [],
+                            "message": { "author": { "role": "assistant" },
+                                         "content": { "content_type": "text", "parts": ["Old branch"] } } },
+                  "a1b":  { "id": "a1b", "parent": "u1", "children": [],
+                            "message": { "author": { "role": "assistant" },
+                                         "content": { "content_type": "text", "parts": ["Regenerated answer", {"asset": "img"}] } } }
+                },
+                "current_node": "a1b",
+                "id": "conv-1"
+              },
+              { "title": "Other", "id": "conv-2", "current_node": null, "mapping": {} }
+            ]
+            """;
+
+    @Test
+    void list_returnsRefsWithoutMessages() {
+        List<ChatGptExportImporter.ConversationRef> refs = importer.list(stream(EXPORT));
+
+        assertThat(refs).extracting(ChatGptExportImporter.ConversationRef::id).containsExactly("conv-1", "conv-2");
+        assertThat(refs.get(0).title()).isEqualTo("Spring handoff");
+        assertThat(refs.get(0).nodeCount()).isEqualTo(5);
+    }
+
+    @Test
+    void importSelected_linearizesActiveBranchOnly() {
+        List<ChatGptExportImporter.ImportedConversation> out =
+                importer.importSelected(stream(EXPORT), ref -> "conv-1".equals(ref.id()));
+
+        assertThat(out).hasSize(1);
+        assertThat(out.get(0).turns()).containsExactly(
+                new ChatTurn(ChatTurn.Role.USER, "Fix HandoffService"),
+                new ChatTurn(ChatTurn.Role.ASSISTANT, "Regenerated answer")
+        );
+        assertThat(ChatGptExportImporter.toTranscript(out.get(0).turns()))
+                .isEqualTo("User: Fix HandoffService\n\nAssistant: Regenerated answer");
+    }
+
+    /**
+     * Throughput benchmark over a synthetic 100 MB+ export.
+     * Run with: ./mvnw test -Dtest=ChatGptExportImporterTest -Dbenchmarks=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_importLargeExport(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("conversations.json");
+        writeSyntheticExport(file, 110L * 1024 * 1024);
+        long bytes = Files.size(file);
+
+        for (String mode : List.of("list", "import")) {
+            long t0 = System.nanoTime();
+            int n;
+            try (InputStream in = Files.newInputStream(file)) {
+                n = mode.equals("list")
+                        ? importer.list(in).size()
+                        : importer.importSelected(in, ref -> true).size();
+            }
+            double secs = (System.nanoTime() - t0) / 1e9;
+            System.out.printf("ChatGptExportImporter %s: %d conversations, %.1f MB in %.2fs (%.1f MB/s)%n",
+                    mode, n, bytes / 1e6, secs, bytes / 1e6 / secs);
+            assertThat(n).isPositive();
+        }
+    }
+
+    private static void writeSyntheticExport(Path file, long targetBytes) throws Exception {
+        String text = "Here is the updated class with the fix applied. ".repeat(40);
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("[");
+            long written = 1;
+            for (int c = 0; written < targetBytes; c++) {
+                StringBuilder sb = new StringBuilder();
+                if (c > 0) sb.append(",");
+                sb.append("{\"id\":\"conv-").append(c).append("\",\"title\":\"Conversation ").append(c)
+                        .append("\",\"current_node\":\"n99\",\"mapping\":{");
+                for (int i = 0; i < 100; i++) {
+                    if (i > 0) sb.append(",");
+                    sb.append("\"n").append(i).append("\":{\"id\":\"n").append(i).append("\",")
+                            .append("\"parent\":").append(i == 0 ? "null" : "\"n" + (i - 1) + "\"").append(",")
+                            .append("\"children\":").append(i == 99 ? "[]" : "[\"n" + (i + 1) + "\"]").append(",")
+                            .append("\"message\":{\"author\":{\"role\":\"").append(i % 2 == 0 ? "user" : "assistant")
+                            .append("\"},\"content\":{\"content_type\":\"text\",\"parts\":[\"").append(text)
+                            .append("\"]}}}");
+                }
+                sb.append("}}");
+                w.write(sb.toString());
+                written += sb.length();
+            }
+            w.write("]");
+        }
+    }
+
+    private static InputStream stream(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkContextsTest {
+
+    @Test
+    void build_carriesEntitiesAndPreviousHeadlineForward() {
+        List<List<ChatTurn>> chunks = List.of(
+                List.of(
+                        new ChatTurn(ChatTurn.Role.USER, "Why does POST /api/handoff fail in HandoffController.java?"),
+                        new ChatTurn(ChatTurn.Role.ASSISTANT, "```java\npublic class HandoffController {}\n```")
+                ),
+                List.of(new ChatTurn(ChatTurn.Role.USER, "Now the tests."))
+        );
+
+        List<String> contexts = ChunkContexts.build(chunks);
+
+        assertThat(contexts.get(0)).isEmpty();
+        assertThat(contexts.get(1))
+                .contains("Previous chunk ended with: user: \"Why does POST /api/handoff fail")
+                .contains("POST /api/handoff", "HandoffController.java", "HandoffController");
+    }
+}
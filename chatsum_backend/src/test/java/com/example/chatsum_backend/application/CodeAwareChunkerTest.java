@@ -0,0 +1,84 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CodeAwareChunkerTest {
+
+    private final CodeAwareChunker chunker = new CodeAwareChunker(2_000, 2_500);
+
+    @Test
+    void chunk_splitsOversizedCodeAtDeclarations_andKeepsEveryPieceFenced() {
+        StringBuilder code = new StringBuilder("Here is the service:\n```java\npublic class UserService {\n");
+        for (int i = 0; i < 80; i++) {
+            code.append("    public String method").append(i).append("() {\n        return \"").append(i).append("\";\n    }\n");
+        }
+        code.append("}\n```\nWhat is wrong with it?");
+
+        List<List<ChatTurn>> chunks = chunker.chunk(List.of(new ChatTurn(ChatTurn.Role.USER, code.toString())));
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        List<String> parts = chunks.stream().flatMap(List::stream).map(t -> t.content().toString()).toList();
+        for (String text : parts) {
+            assertThat(text.length()).isLessThanOrEqualTo(2_000);
+            assertThat(text.split("```", -1).length % 2).as("balanced fences in:\n%s", text).isEqualTo(1);
+            // cut before a declaration, never inside a method body
+            assertThat(text).doesNotStartWith("        return");
+        }
+        assertThat(parts.get(1)).startsWith("[continued: `UserService`, part 2/");
+        assertThat(parts.get(parts.size() - 1)).endsWith("What is wrong with it?");
+    }
+
+    @Test
+    void chunk_keepsStackTraceTogether() {
+        String prose = "Some context line that explains what happened before the crash.\n".repeat(25);
+        String trace = "java.lang.IllegalStateException: boom\n" + "\tat com.example.Foo.bar(Foo.java:10)\n".repeat(40);
+        String turn = prose + "\n" + trace + "\n" + prose;
+
+        List<List<ChatTurn>> chunks = chunker.chunk(List.of(new ChatTurn(ChatTurn.Role.ASSISTANT, turn)));
+
+        long withTrace = chunks.stream().flatMap(List::stream)
+                .filter(t -> t.content().toString().contains("Foo.bar"))
+                .count();
+        assertThat(withTrace).isEqualTo(1);
+    }
+
+    /**
+     * Compares strategies on a local corpus of transcripts (*.txt), e.g. exported conversations.
+     * Run with: ./mvnw test -Dtest=CodeAwareChunkerTest -Dbenchmarks=true -Dbenchmarks.corpus=/path/to/dir
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_compareStrategiesOnCorpus() throws Exception {
+        Path dir = Path.of(System.getProperty("benchmarks.corpus", "corpus"));
+        TranscriptParser parser = new TranscriptParser();
+
+        for (ChunkingStrategy strategy : List.of(new Chunker(), new CodeAwareChunker())) {
+            int chunks = 0;
+            int oversized = 0;
+            int unbalanced = 0;
+            long t0 = System.nanoTime();
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path f : files.filter(p -> p.toString().endsWith(".txt")).toList()) {
+                    for (List<ChatTurn> chunk : strategy.chunk(parser.parse(Files.readString(f)))) {
+                        chunks++;
+                        int size = chunk.stream().mapToInt(t -> t.content().length()).sum();
+                        if (size > Chunker.DEFAULT_MAX_CHUNK_CHARS) oversized++;
+                        String text = chunk.stream().map(t -> t.content().toString()).reduce("", String::concat);
+                        if (text.split("```", -1).length % 2 == 0) unbalanced++;
+                    }
+                }
+            }
+            System.out.printf("%s: %d chunks, %d over max, %d with unbalanced fences, %.1f ms%n",
+                    strategy.getClass().getSimpleName(), chunks, oversized, unbalanced, (System.nanoTime() - t0) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.api.dto.HandoffPlanResponse;
+import com.example.chatsum_backend.config.HandoffProperties;
+import com.example.chatsum_backend.config.OpenAiProperties;
+import com.example.chatsum_backend.openai.OpenAiClient;
+import com.example.chatsum_backend.openai.OpenAiMetrics;
+import com.example.chatsum_backend.openai.OpenAiStage;
+import com.example.chatsum_backend.openai.OpenAiUsage;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HandoffPlannerTest {
+
+    @Test
+    void plan_sizesEveryStageLocally_andSwitchesToLiveStatsOnceObserved() {
+        OpenAiProperties props = new OpenAiProperties(
+                "test-key", "gpt-5-mini", null,
+                new OpenAiProperties.Pricing(5.0, 0.5, 15.0), null,
+                new OpenAiProperties.Timeouts(20, 300),
+                new OpenAiProperties.Batch(0, 1, "24h"),
+                null
+        );
+        OpenAiMetrics metrics = new OpenAiMetrics();
+        OpenAiClient openAi = new OpenAiClient(props, new ObjectMapper(), metrics);
+        HandoffProperties handoffProps = HandoffProperties.defaults();
+        HandoffService service = new HandoffService(
+                new TranscriptParser(), new RepeatedContentDeduplicator(), new TurnPrefilter(), new Chunker(),
+                openAi, null, Runnable::run, Runnable::run, Runnable::run, handoffProps);
+        HandoffPlanner planner = new HandoffPlanner(service, openAi, metrics, handoffProps, Runnable::run);
+
+        String transcript = "User: " + "a".repeat(10_000) + "\nAssistant: " + "b".repeat(10_000);
+
+        HandoffPlanResponse plan = planner.plan(transcript, "gpt-4o", false);
+
+        assertThat(plan.turns()).isEqualTo(2);
+        assertThat(plan.chunks()).isEqualTo(2);
+        HandoffPlanResponse.Stage chunk = plan.stages().get(0);
+        assertThat(chunk.calls()).isEqualTo(2);
+        assertThat(chunk.inputTokens()).isGreaterThan(5_000);
+        assertThat(chunk.outputTokens()).isEqualTo(4_000); // half of the 4000 cap per call until observed
+        assertThat(chunk.observed()).isFalse();
+        assertThat(plan.estCostUsd()).isGreaterThan(BigDecimal.ZERO);
+        // one chunk call at a time on a direct executor, 60s default per call: 2 chunk waves + merge + seed
+        assertThat(plan.etaMs()).isEqualTo(240_000);
+
+        metrics.recordSuccess(OpenAiStage.CHUNK, "gpt-5-mini", new OpenAiUsage(3_000, 0, 500), BigDecimal.ZERO, 5_000);
+
+        HandoffPlanResponse.Stage observed = planner.plan(transcript, "gpt-4o", false).stages().get(0);
+        assertThat(observed.observed()).isTrue();
+        assertThat(observed.outputTokens()).isEqualTo(1_000);
+        assertThat(observed.etaMs()).isEqualTo(10_000);
+    }
+}
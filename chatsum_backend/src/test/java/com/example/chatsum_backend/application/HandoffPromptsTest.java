@@ -0,0 +1,75 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.config.OpenAiProperties;
+import com.example.chatsum_backend.openai.OpenAiClient;
+import com.example.chatsum_backend.openai.OpenAiMetrics;
+import com.example.chatsum_backend.openai.OpenAiStage;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the prompt-cache layout: static prefixes must stay byte-identical across calls and releases.
+ * If a hash test fails you changed a prompt; that is fine when intended (it resets the provider cache),
+ * just update the pinned value in the same commit.
+ */
+class HandoffPromptsTest {
+
+    @Test
+    void staticInstructions_arePinned() throws Exception {
+        assertThat(sha256(HandoffPrompts.CHUNK_INSTRUCTIONS))
+                .isEqualTo("e03bbd804170f11bf867623bada79ba76d1b6a62c2a29b57c24b08db5bdd99ca");
+        assertThat(sha256(HandoffPrompts.MERGE_INSTRUCTIONS_DEV))
+                .isEqualTo("63e3534cdf214035132ec08500328dcb377501ff46b67c6e285e488af209eaea");
+        assertThat(sha256(HandoffPrompts.MERGE_INSTRUCTIONS_DEFAULT))
+                .isEqualTo("6084f990a9fd04675922f15ec11fa6ce2075369c9860ac3e855667844ef48ea7");
+        assertThat(sha256(HandoffPrompts.SEED_INSTRUCTIONS_DEV))
+                .isEqualTo("8e9daac0aabe941e0a4a2341312e624ff6b66890b06f40dfb50864e7a0685c82");
+        assertThat(sha256(HandoffPrompts.SEED_INSTRUCTIONS_DEFAULT))
+                .isEqualTo("1a5ac270812eb3069faf3671e29bc95e7d9004cc05e6bdf29dba036234c0f8ff");
+    }
+
+    @Test
+    void chunkRequests_shareEverythingBeforeTheUserContent() {
+        OpenAiClient client = new OpenAiClient(props(), new ObjectMapper(), new OpenAiMetrics());
+
+        String a = new String(client.structuredRequestBody(OpenAiStage.CHUNK, HandoffPrompts.CHUNK_INSTRUCTIONS,
+                HandoffPrompts.chunkUser(1, 2, "User: first chunk")), StandardCharsets.UTF_8);
+        String b = new String(client.structuredRequestBody(OpenAiStage.CHUNK, HandoffPrompts.CHUNK_INSTRUCTIONS,
+                HandoffPrompts.chunkUser(2, 2, "Assistant: second chunk")), StandardCharsets.UTF_8);
+
+        int userStart = a.indexOf("\"input\"");
+        assertThat(userStart).isPositive();
+        assertThat(b.substring(0, userStart)).isEqualTo(a.substring(0, userStart));
+    }
+
+    @Test
+    void seedUser_putsVariableBudgetLast() {
+        String small = HandoffPrompts.seedUser(1_000, "S", "C", "N", true, List.of("chunk 1"));
+        String large = HandoffPrompts.seedUser(90_000, "S", "C", "N", true, List.of("chunk 1"));
+
+        int budgetAt = small.indexOf("LENGTH BUDGET");
+        assertThat(large.substring(0, budgetAt)).isEqualTo(small.substring(0, budgetAt));
+    }
+
+    private static OpenAiProperties props() {
+        return new OpenAiProperties(
+                "test-key", "gpt-5-mini", null,
+                new OpenAiProperties.Pricing(5.0, 0.5, 15.0), null,
+                new OpenAiProperties.Timeouts(20, 300),
+                new OpenAiProperties.Batch(30, 1440, "24h"),
+                null
+        );
+    }
+
+    private static String sha256(String s) throws Exception {
+        byte[] d = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(d);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.api.dto.HandoffResponse;
+import com.example.chatsum_backend.config.HandoffProperties;
+import com.example.chatsum_backend.config.OpenAiProperties;
+import com.example.chatsum_backend.openai.CallContext;
+import com.example.chatsum_backend.openai.LocalFileBatchEndpoint;
+import com.example.chatsum_backend.openai.OpenAiBatchRunner;
+import com.example.chatsum_backend.openai.OpenAiClient;
+import com.example.chatsum_backend.openai.OpenAiMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HandoffServiceDeferredTest {
+
+    private static final String TRANSCRIPT = "User: " + "a".repeat(10_000) + "\nAssistant: " + "b".repeat(10_000);
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final List<String> seedUsers = new CopyOnWriteArrayList<>();
+    private final ThreadPoolTaskScheduler pollScheduler = new ThreadPoolTaskScheduler();
+
+    @BeforeEach
+    void startScheduler() {
+        pollScheduler.initialize();
+    }
+
+    @AfterEach
+    void stopScheduler() {
+        pollScheduler.shutdown();
+    }
+
+    @Test
+    void generateDeferred_runsChunkMergeAndSeedStagesAsBatches(@TempDir Path dir) throws Exception {
+        LocalFileBatchEndpoint endpoint = new LocalFileBatchEndpoint(dir, om, this::respond);
+        HandoffService service = service(endpoint, HandoffProperties.defaults());
+
+        HandoffResponse res = service.generateDeferred(TRANSCRIPT, "gpt-4o", true);
+
+        assertThat(res.handoffSummary()).isEqualTo("MERGED_SUMMARY");
+        assertThat(res.currentState()).isEqualTo("MERGED_STATE");
+        assertThat(res.neededContext()).isEqualTo("MERGED_CONTEXT");
+        assertThat(res.seedPrompt()).isEqualTo("SEED");
+
+        // chunks batch (2 lines), merge batch, seed batch
+        assertThat(endpoint.submitted()).hasSize(3);
+        assertThat(Files.readAllLines(endpoint.submitted().get(0))).hasSize(2);
+    }
+
+    @Test
+    void speculativeSeed_getsOnlyTheRankedSummariesWithinTheBudget(@TempDir Path dir) {
+        LocalFileBatchEndpoint endpoint = new LocalFileBatchEndpoint(dir, om, this::respond);
+        // each "Chunk i/2 summary" is about 9 tokens: only the latest one fits
+        HandoffService service = service(endpoint,
+                HandoffProperties.defaults().withSpeculativeSeed(true).withSeedSummaryTokenBudget(12));
+
+        HandoffResponse res = service.generateDeferred(TRANSCRIPT, "gpt-4o", false);
+
+        assertThat(res.seedPrompt()).isEqualTo("SEED");
+        assertThat(seedUsers).singleElement()
+                .satisfies(user -> assertThat(user).contains("Chunk 2/2 summary").doesNotContain("Chunk 1/2 summary"));
+    }
+
+    @Test
+    void generateDeferredAsync_returnsWhileTheBatchRuns_andCancelsTheBatchOnCancel(@TempDir Path dir) throws Exception {
+        LocalFileBatchEndpoint endpoint = new LocalFileBatchEndpoint(dir, om, this::respond);
+        // the local batch needs a second poll, half a minute after the first (max wait is one minute)
+        HandoffService service = service(endpoint, HandoffProperties.defaults(), 30);
+        CallContext ctx = new CallContext();
+
+        CompletableFuture<HandoffResponse> res = service.generateDeferredAsync(TRANSCRIPT, "gpt-4o", false, ctx);
+
+        assertThat(res).isNotDone();
+        assertThat(endpoint.submitted()).hasSize(1);
+        ctx.cancel();
+        assertThatThrownBy(() -> res.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(CancellationException.class);
+        // the cancel call goes out on the poll scheduler
+        for (int i = 0; i < 50 && endpoint.cancelled().isEmpty(); i++) Thread.sleep(100);
+        assertThat(endpoint.cancelled()).containsExactly("local-batch-1");
+    }
+
+    private HandoffService service(LocalFileBatchEndpoint endpoint, HandoffProperties handoffProps) {
+        return service(endpoint, handoffProps, 0);
+    }
+
+    private HandoffService service(LocalFileBatchEndpoint endpoint, HandoffProperties handoffProps, int pollSeconds) {
+        OpenAiProperties props = new OpenAiProperties(
+                "test-key", "gpt-5-mini", null,
+                new OpenAiProperties.Pricing(5.0, 0.5, 15.0), null,
+                new OpenAiProperties.Timeouts(20, 300),
+                new OpenAiProperties.Batch(pollSeconds, 1, "24h"),
+                null
+        );
+        return new HandoffService(
+                new TranscriptParser(),
+                new RepeatedContentDeduplicator(),
+                new TurnPrefilter(),
+                new Chunker(),
+                new OpenAiClient(props, om, new OpenAiMetrics()),
+                new OpenAiBatchRunner(endpoint, props, om, pollScheduler),
+                Runnable::run,
+                Runnable::run,
+                Runnable::run,
+                handoffProps
+        );
+    }
+
+    private String respond(JsonNode body) {
+        boolean structured = "json_schema".equals(body.path("text").path("format").path("type").asString(""));
+        if (structured) {
+            return om.writeValueAsString(Map.of(
+                    "handoffSummary", "MERGED_SUMMARY", "currentState", "MERGED_STATE",
+                    "seedPrompt", "", "neededContext", "MERGED_CONTEXT"));
+        }
+
+        String user = body.path("input").path(0).path("content").asString("");
+        if (user.startsWith("Chunk ")) return "```markdown\n- chunk summary\n```";
+        seedUsers.add(user);
+        return "SEED";
+    }
+}
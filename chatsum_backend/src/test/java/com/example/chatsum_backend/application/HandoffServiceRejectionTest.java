@@ -0,0 +1,43 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.config.HandoffProperties;
+import com.example.chatsum_backend.openai.CallContext;
+import com.example.chatsum_backend.openai.OpenAiClient;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class HandoffServiceRejectionTest {
+
+    @Test
+    void generate_cancelsTheChunksAlreadyQueued_whenThePoolRejectsOne() {
+        // takes the first chunk task, then behaves like a full queue
+        List<Runnable> queued = new ArrayList<>();
+        Executor full = task -> {
+            if (!queued.isEmpty()) throw new RejectedExecutionException("queue full");
+            queued.add(task);
+        };
+        OpenAiClient openAi = mock(OpenAiClient.class);
+        HandoffService service = new HandoffService(
+                new TranscriptParser(), new RepeatedContentDeduplicator(), new TurnPrefilter(), new Chunker(),
+                openAi, null, full, Runnable::run, Runnable::run, HandoffProperties.defaults());
+        CallContext ctx = new CallContext();
+        String transcript = "User: " + "a".repeat(10_000) + "\nAssistant: " + "b".repeat(10_000);
+
+        assertThatThrownBy(() -> service.generate(transcript, "gpt-4o", false, ctx))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        assertThat(ctx.isCancelled()).isTrue();
+        // the task already queued still gets its turn later, but makes no call
+        queued.get(0).run();
+        verifyNoInteractions(openAi);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepeatedContentDeduplicatorTest {
+
+    private final RepeatedContentDeduplicator dedup = new RepeatedContentDeduplicator();
+
+    @Test
+    void dedup_replacesEarlierVersionOfTheSameClass_keepsTheLastAndUnrelatedBlocks() {
+        String v1 = javaClass("UserService", 30, "return null;");
+        String v2 = javaClass("UserService", 30, "return repo.findById(id).orElseThrow();");
+        String other = javaClass("OrderService", 30, "return null;");
+
+        List<ChatTurn> turns = List.of(
+                new ChatTurn(ChatTurn.Role.USER, "Here is my service:\n" + v1 + "\nWhy does it return null?"),
+                new ChatTurn(ChatTurn.Role.ASSISTANT, "Use the repository:\n" + v2),
+                new ChatTurn(ChatTurn.Role.USER, "And this one?\n" + other)
+        );
+
+        RepeatedContentDeduplicator.Result res = dedup.dedup(turns);
+
+        assertThat(res.blocksReplaced()).isEqualTo(1);
+        assertThat(res.estTokensSaved()).isPositive();
+        String first = res.turns().get(0).content().toString();
+        assertThat(first).startsWith("Here is my service:\n[earlier version of `UserService` omitted");
+        assertThat(first).endsWith("\nWhy does it return null?");
+        assertThat(res.turns().get(1).content()).isSameAs(turns.get(1).content());
+        assertThat(res.turns().get(2).content()).isSameAs(turns.get(2).content());
+    }
+
+    private static String javaClass(String name, int methods, String body) {
+        StringBuilder sb = new StringBuilder("```java\npublic class " + name + " {\n");
+        for (int i = 0; i < methods; i++) {
+            sb.append("    public Object method").append(i).append("(long id) {\n");
+            sb.append("        ").append(i == 0 ? body : "return \"value" + i + "\";").append("\n    }\n");
+        }
+        return sb.append("}\n```").toString();
+    }
+}
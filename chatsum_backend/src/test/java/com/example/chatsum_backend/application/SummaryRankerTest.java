@@ -0,0 +1,31 @@
+package com.example.chatsum_backend.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SummaryRankerTest {
+
+    @Test
+    void select_keepsRelevantAndLatestSummariesWithinBudget_inOriginalOrder() {
+        List<String> summaries = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            summaries.add("Chunk " + i + "/10 summary:\n- Discussed unrelated styling of the landing page, colors and fonts "
+                    + "x".repeat(300));
+        }
+        summaries.set(3, "Chunk 4/10 summary:\n- Added retry with backoff to OpenAiClient; RetryPolicy is configurable "
+                + "y".repeat(300));
+
+        String query = "Current state: OpenAiClient retries with backoff; RetryPolicy still needs tests.";
+        List<String> selected = SummaryRanker.select(summaries, query, List.of("OpenAiClient", "RetryPolicy"), 250);
+
+        // each summary is ~100 tokens: the best match plus the latest chunk fit
+        assertThat(selected).containsExactly(summaries.get(3), summaries.get(9));
+
+        assertThat(SummaryRanker.select(summaries, query, List.of(), 0)).isSameAs(summaries);
+        assertThat(SummaryRanker.select(summaries, query, List.of(), 100_000)).isSameAs(summaries);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranscriptParserEquivalenceTest {
+
+    private static final String[] LINES = {
+            "User: how do I fix this?", "Assistant: try this:", "User:", "Assistant:   ", "User: trailing   ",
+            "  User: indented, not a marker", "plain line", "", "   ", "```java", "class A {}", "```",
+            "Users: not a marker", "Assistant:no space", "\t"
+    };
+
+    @Test
+    void parallelParse_matchesSequentialParse_forAnyCut() {
+        TranscriptParser sequential = new TranscriptParser();
+        // every transcript goes through fork/join, cut into segments as small as 16 chars
+        TranscriptParser parallel = new TranscriptParser(1, 16);
+        Random rnd = new Random(42);
+
+        for (int round = 0; round < 500; round++) {
+            StringBuilder sb = new StringBuilder();
+            if (rnd.nextBoolean()) sb.append("  \n");
+            int lines = 1 + rnd.nextInt(60);
+            for (int i = 0; i < lines; i++) {
+                sb.append(LINES[rnd.nextInt(LINES.length)]);
+                if (rnd.nextInt(4) == 0) sb.append(" word".repeat(rnd.nextInt(8)));
+                sb.append(rnd.nextInt(10) == 0 ? "\r\n" : "\n");
+            }
+            String transcript = sb.toString();
+
+            List<ChatTurn> expected = sequential.parse(transcript);
+            List<ChatTurn> actual = parallel.parse(transcript);
+
+            assertThat(actual).hasSameSizeAs(expected);
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i).role()).isEqualTo(expected.get(i).role());
+                assertThat(actual.get(i).content().toString()).isEqualTo(expected.get(i).content().toString());
+            }
+        }
+    }
+}
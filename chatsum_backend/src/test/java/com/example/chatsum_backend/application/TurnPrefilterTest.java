@@ -0,0 +1,45 @@
+package com.example.chatsum_backend.application;
+
+import com.example.chatsum_backend.domain.ChatTurn;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TurnPrefilterTest {
+
+    private final TurnPrefilter prefilter = new TurnPrefilter();
+
+    @Test
+    void filter_dropsAcknowledgements_andTrimsLowSignalTurnsUnderBudget() {
+        List<ChatTurn> turns = new ArrayList<>();
+        turns.add(user("I want to migrate OrderRepository to Spring Data JDBC."));
+        turns.add(assistant("```java\npublic interface OrderRepository extends CrudRepository<Order, Long> {}\n```"));
+        turns.add(user("thanks!"));
+        String chatter = "I am going to think about this for a while and come back later.\n".repeat(30);
+        turns.add(assistant(chatter));
+        turns.add(user("ok try this"));
+        for (int i = 0; i < 6; i++) turns.add(user("Recent question " + i + " about OrderService.save" + i));
+
+        long totalChars = turns.stream().mapToLong(t -> t.content().length()).sum();
+        TurnPrefilter.Result res = prefilter.filter(turns, (int) (totalChars / 4 / 2));
+
+        assertThat(res.droppedTurns()).isGreaterThanOrEqualTo(2);
+        assertThat(res.reductionRatio()).isGreaterThan(0.3);
+        List<String> texts = res.turns().stream().map(t -> t.content().toString()).toList();
+        assertThat(texts).doesNotContain("thanks!", "ok try this", chatter);
+        assertThat(texts.get(0)).startsWith("I want to migrate");
+        assertThat(texts).anyMatch(t -> t.contains("interface OrderRepository"));
+        assertThat(texts).contains("Recent question 5 about OrderService.save5");
+    }
+
+    private static ChatTurn user(String s) {
+        return new ChatTurn(ChatTurn.Role.USER, s);
+    }
+
+    private static ChatTurn assistant(String s) {
+        return new ChatTurn(ChatTurn.Role.ASSISTANT, s);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.chatsum_backend.controller;
+
+import com.example.chatsum_backend.api.controller.HandoffBatchesController;
+import com.example.chatsum_backend.api.exception.GlobalExceptionHandler;
+import com.example.chatsum_backend.jobs.HandoffBatchService;
+import com.example.chatsum_backend.jobs.JobStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(HandoffBatchesController.class)
+@Import({GlobalExceptionHandler.class, JobStore.class})
+class HandoffBatchesControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockitoBean
+    HandoffBatchService batchService;
+
+    @Test
+    void returns404ForUnknownBatch() throws Exception {
+        mvc.perform(get("/api/handoff/batches/nope"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("Batch not found: nope"));
+
+        mvc.perform(get("/api/handoff/batches/nope/events"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.chatsum_backend.controller;
+
+import com.example.chatsum_backend.api.controller.HandoffJobsController;
+import com.example.chatsum_backend.api.dto.HandoffResponse;
+import com.example.chatsum_backend.api.exception.GlobalExceptionHandler;
+import com.example.chatsum_backend.jobs.HandoffJob;
+import com.example.chatsum_backend.jobs.HandoffJobService;
+import com.example.chatsum_backend.jobs.JobStore;
+import com.example.chatsum_backend.jobs.ResultStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(HandoffJobsController.class)
+@Import({GlobalExceptionHandler.class, JobStore.class, ResultStore.class})
+class HandoffJobsControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    JobStore store;
+
+    @Autowired
+    ResultStore results;
+
+    @MockitoBean
+    HandoffJobService jobService;
+
+    @Test
+    void poll_answers304UntilTheJobMovesOn() throws Exception {
+        HandoffJob job = store.create("j1");
+        job.start("Starting…");
+
+        String etag = mvc.perform(get("/api/handoff/jobs/j1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/handoff/jobs/j1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        job.setProgress(40, "Summarizing conversation");
+
+        String next = mvc.perform(get("/api/handoff/jobs/j1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.progress").value(40))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(next).isNotEqualTo(etag);
+    }
+
+    @Test
+    void status_leavesTheResultOut() throws Exception {
+        succeeded("j2");
+
+        mvc.perform(get("/api/handoff/jobs/j2/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.result").doesNotExist());
+
+        mvc.perform(get("/api/handoff/jobs/j2"))
+                .andExpect(jsonPath("$.result.seedPrompt").value("SEED"));
+    }
+
+    @Test
+    void resultField_200ForText_204WhenEmpty_409WithoutResult_404WhenUnknown() throws Exception {
+        succeeded("j3");
+
+        MvcResult seed = mvc.perform(get("/api/handoff/jobs/j3/result/seedPrompt"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(seed))
+                .andExpect(status().isOk())
+                .andExpect(content().string("SEED"));
+
+        mvc.perform(get("/api/handoff/jobs/j3/result/neededContext"))
+                .andExpect(status().isNoContent());
+
+        mvc.perform(get("/api/handoff/jobs/j3/result/nope"))
+                .andExpect(status().isNotFound());
+
+        store.create("j4").start("Starting…");
+        mvc.perform(get("/api/handoff/jobs/j4/result/seedPrompt"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void returns404ForUnknownJob() throws Exception {
+        mvc.perform(get("/api/handoff/jobs/nope"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("Job not found: nope"));
+
+        mvc.perform(get("/api/handoff/jobs/nope/status"))
+                .andExpect(status().isNotFound());
+
+        mvc.perform(get("/api/handoff/jobs/nope/result/seedPrompt"))
+                .andExpect(status().isNotFound());
+    }
+
+    private void succeeded(String id) {
+        HandoffJob job = store.create(id);
+        job.start("Starting…");
+        job.succeed(results.store(new HandoffResponse("SUMMARY", "STATE", "SEED", "")));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.chatsum_backend.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatTurnTest {
+
+    @Test
+    void equality_isByContent_acrossCharSequenceTypes() {
+        String source = "xx hello world yy";
+        ChatTurn fromString = new ChatTurn(ChatTurn.Role.USER, "hello world");
+        ChatTurn fromSpan = new ChatTurn(ChatTurn.Role.USER, new TextSpan(source, 3, 14));
+        ChatTurn fromComposite = new ChatTurn(ChatTurn.Role.USER, CompositeText.of("hello", " ", "world"));
+
+        assertThat(fromSpan).isEqualTo(fromString).isEqualTo(fromComposite);
+        assertThat(fromString).isEqualTo(fromSpan);
+        assertThat(fromComposite).isEqualTo(fromSpan);
+        assertThat(fromSpan.hashCode()).isEqualTo(fromString.hashCode()).isEqualTo(fromComposite.hashCode());
+
+        assertThat(fromSpan).isNotEqualTo(new ChatTurn(ChatTurn.Role.ASSISTANT, "hello world"));
+        assertThat(fromSpan).isNotEqualTo(new ChatTurn(ChatTurn.Role.USER, "hello there"));
+    }
+}
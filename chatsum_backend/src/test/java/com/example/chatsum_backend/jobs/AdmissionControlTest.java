@@ -0,0 +1,56 @@
+package com.example.chatsum_backend.jobs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlTest {
+
+    @Test
+    void admit_rejectsOnQueueDepthTokensAndHeap_andReleasesOnFinish() {
+        AtomicLong headroom = new AtomicLong(Long.MAX_VALUE);
+        AdmissionControl admission = new AdmissionControl(2, 2, 10_000, headroom::get);
+
+        AdmissionControl.Ticket a = admission.admit(4_000);
+        AdmissionControl.Ticket b = admission.admit(4_000);
+        assertThatThrownBy(() -> admission.admit(4))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class, e -> {
+                    assertThat(e.reason()).isEqualTo(AdmissionRejectedException.Reason.QUEUE_FULL);
+                    assertThat(e.overloaded()).isFalse();
+                    assertThat(e.retryAfterSeconds()).isPositive();
+                });
+
+        admission.started(a);
+        assertThatThrownBy(() -> admission.admit(40_000))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class,
+                        e -> assertThat(e.reason()).isEqualTo(AdmissionRejectedException.Reason.QUEUED_TOKENS));
+
+        headroom.set(1_000);
+        assertThatThrownBy(() -> admission.admit(4_000))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class, e -> {
+                    assertThat(e.reason()).isEqualTo(AdmissionRejectedException.Reason.HEAP);
+                    assertThat(e.overloaded()).isTrue();
+                });
+
+        headroom.set(Long.MAX_VALUE);
+        admission.finished(a, 2_000);
+        admission.cancelled(b);
+        assertThat(admission.snapshot().inFlightTokens()).isZero();
+        assertThat(admission.admit(40_000).tokens()).isEqualTo(10_001);
+    }
+
+    @Test
+    void deferred_releasesTheTicket_withoutMovingTheAverageJobTime() {
+        AdmissionControl admission = new AdmissionControl(1, 10, 10_000, () -> Long.MAX_VALUE);
+        AdmissionControl.Ticket batch = admission.admit(36_000);
+        admission.started(batch);
+        double avg = admission.snapshot().avgJobSeconds();
+
+        admission.deferred(batch);
+
+        assertThat(admission.snapshot()).isEqualTo(new AdmissionControl.Snapshot(0, 0, 0, avg));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.chatsum_backend.jobs;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HandoffBatchTest {
+
+    @Test
+    void listenersSeeEveryItemOnce_outsideTheBatchLock() {
+        HandoffBatch batch = new HandoffBatch("b1", List.of("a", "b", "c"));
+        List<Integer> seen = new ArrayList<>();
+        List<Boolean> locked = new ArrayList<>();
+
+        batch.succeed(batch.items().get(0), null);
+        batch.subscribe(it -> {
+            seen.add(it.index());
+            locked.add(Thread.holdsLock(batch));
+        });
+        batch.fail(batch.items().get(2), "boom");
+        batch.succeed(batch.items().get(1), null);
+
+        assertThat(seen).containsExactly(0, 2, 1);
+        assertThat(locked).containsOnly(false);
+    }
+
+    @Test
+    void evictsOnlyFinishedBatchesPastTheCutoff() {
+        JobStore store = new JobStore();
+        HandoffBatch done = store.createBatch("done", List.of("a"));
+        store.createBatch("running", List.of("a"));
+        done.succeed(done.items().get(0), null);
+
+        assertThat(store.evictFinishedBatches(Instant.now().minusSeconds(60))).isZero();
+        assertThat(store.evictFinishedBatches(Instant.now().plusSeconds(1))).isEqualTo(1);
+        assertThat(store.getBatch("done")).isEmpty();
+        assertThat(store.getBatch("running")).isPresent();
+    }
+}
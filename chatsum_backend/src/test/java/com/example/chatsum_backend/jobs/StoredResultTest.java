@@ -0,0 +1,30 @@
+package com.example.chatsum_backend.jobs;
+
+import com.example.chatsum_backend.api.dto.HandoffResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoredResultTest {
+
+    @Test
+    void encode_roundTripsEveryField_andStreamsSingleFields() throws Exception {
+        String seed = "## Seed prompt 📌 — résumé\n" + "class HandoffService handles chunking.\n".repeat(4_000);
+        HandoffResponse response = new HandoffResponse("Summary ✅", "", seed, null);
+
+        StoredResult stored = StoredResult.encode(response);
+
+        assertThat(stored.decode()).isEqualTo(response);
+        assertThat(stored.rawLength(StoredResult.Field.CURRENT_STATE)).isZero();
+        assertThat(stored.rawLength(StoredResult.Field.NEEDED_CONTEXT)).isEqualTo(-1);
+        assertThat(stored.offHeapBytes()).isLessThan(stored.rawBytes() / 10);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stored.writeTo(StoredResult.Field.SEED_PROMPT, out);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(seed);
+        assertThat(StoredResult.Field.byKey("seedPrompt")).isEqualTo(StoredResult.Field.SEED_PROMPT);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.chatsum_backend.openai;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CallContextTest {
+
+    @Test
+    void cancel_runsRegisteredAbortsOnce_andWakesSleepers() throws Exception {
+        CallContext ctx = new CallContext();
+        AtomicInteger aborted = new AtomicInteger();
+
+        CallContext.Registration done = ctx.onCancel(aborted::incrementAndGet);
+        done.close(); // call finished before the cancel: must not be aborted
+        ctx.onCancel(aborted::incrementAndGet);
+
+        Thread sleeper = new Thread(() -> assertThatThrownBy(() -> ctx.sleep(60_000))
+                .isInstanceOf(CancellationException.class));
+        sleeper.start();
+
+        ctx.cancel();
+        ctx.cancel();
+        sleeper.join(5_000);
+
+        assertThat(sleeper.isAlive()).isFalse();
+        assertThat(aborted).hasValue(1);
+        assertThat(ctx.isCancelled()).isTrue();
+
+        // registering after the cancel aborts right away
+        ctx.onCancel(aborted::incrementAndGet);
+        assertThat(aborted).hasValue(2);
+        assertThatThrownBy(ctx::throwIfCancelled).isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    void deadline_capsSleeps_andExpires() {
+        CallContext ctx = new CallContext(Duration.ofMillis(50));
+        assertThat(ctx.hasDeadline()).isTrue();
+
+        long t0 = System.nanoTime();
+        assertThatThrownBy(() -> ctx.sleep(60_000)).isInstanceOf(DeadlineExceededException.class);
+        assertThat((System.nanoTime() - t0) / 1_000_000).isLessThan(5_000);
+        assertThatThrownBy(ctx::throwIfExpired).isInstanceOf(DeadlineExceededException.class);
+        assertThat(new CallContext().remainingMs()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void child_sharesTheDeadline_butIsCancelledOnItsOwn() {
+        CallContext parent = new CallContext(Duration.ofMinutes(5));
+        CallContext child = parent.child();
+
+        assertThat(child.hasDeadline()).isTrue();
+        assertThat(child.remainingMs()).isLessThanOrEqualTo(parent.remainingMs() + 1);
+
+        child.cancel();
+        assertThat(child.isCancelled()).isTrue();
+        assertThat(parent.isCancelled()).isFalse();
+    }
+
+    @Test
+    void none_isNeverCancelled() {
+        CallContext.NONE.cancel();
+        assertThat(CallContext.NONE.isCancelled()).isFalse();
+    }
+}
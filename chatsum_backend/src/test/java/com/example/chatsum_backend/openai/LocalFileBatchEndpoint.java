@@ -0,0 +1,122 @@
+package com.example.chatsum_backend.openai;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * File-based stand-in for the OpenAI Batch API.
+ *
+ * submit() copies the JSONL into a work dir, the first poll() reports IN_PROGRESS and the next one
+ * "runs" every line through the responder, writing an output JSONL in the Batch API format.
+ * The responder maps a request body to the assistant output_text.
+ */
+public class LocalFileBatchEndpoint implements BatchEndpoint {
+
+    private final Path dir;
+    private final ObjectMapper om;
+    private final Function<JsonNode, String> responder;
+
+    private final AtomicInteger seq = new AtomicInteger();
+    private final Map<String, Integer> polls = new HashMap<>();
+    private final List<Path> submitted = new ArrayList<>();
+    private final List<String> cancelled = new ArrayList<>();
+
+    public LocalFileBatchEndpoint(Path dir, ObjectMapper om, Function<JsonNode, String> responder) {
+        this.dir = dir;
+        this.om = om;
+        this.responder = responder;
+    }
+
+    /** Input files in submission order (kept, unlike the real endpoint, so tests can inspect them). */
+    public List<Path> submitted() {
+        return submitted;
+    }
+
+    /** Batch ids passed to cancel(); nothing runs in the background here, so there is nothing else to stop. */
+    public synchronized List<String> cancelled() {
+        return List.copyOf(cancelled);
+    }
+
+    @Override
+    public synchronized String submit(Path jsonl) {
+        String id = "local-batch-" + seq.incrementAndGet();
+        try {
+            Path input = dir.resolve(id + ".input.jsonl");
+            Files.copy(jsonl, input);
+            submitted.add(input);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        polls.put(id, 0);
+        return id;
+    }
+
+    @Override
+    public synchronized BatchStatus poll(String batchId) {
+        int n = polls.merge(batchId, 1, Integer::sum);
+        if (n < 2) return new BatchStatus(BatchStatus.State.IN_PROGRESS, 0, 0, 0);
+
+        Path output = dir.resolve(batchId + ".output.jsonl");
+        if (!Files.exists(output)) process(batchId, output);
+        return new BatchStatus(BatchStatus.State.COMPLETED, 0, 0, 0);
+    }
+
+    @Override
+    public Map<String, JsonNode> results(String batchId) {
+        Map<String, JsonNode> out = new HashMap<>();
+        try (BufferedReader r = Files.newBufferedReader(dir.resolve(batchId + ".output.jsonl"), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                JsonNode row = om.readTree(line);
+                out.put(row.path("custom_id").asString(""), row.path("response").path("body"));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return out;
+    }
+
+    @Override
+    public synchronized void cancel(String batchId) {
+        cancelled.add(batchId);
+    }
+
+    private void process(String batchId, Path output) {
+        try (BufferedReader r = Files.newBufferedReader(dir.resolve(batchId + ".input.jsonl"), StandardCharsets.UTF_8);
+             BufferedWriter w = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                JsonNode req = om.readTree(line);
+                String text = responder.apply(req.path("body"));
+
+                Map<String, Object> body = Map.of(
+                        "output", List.of(Map.of(
+                                "type", "message",
+                                "content", List.of(Map.of("type", "output_text", "text", text))
+                        )),
+                        "usage", Map.of("input_tokens", 0, "output_tokens", 0)
+                );
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("custom_id", req.path("custom_id").asString(""));
+                row.put("response", Map.of("status_code", 200, "body", body));
+                w.write(om.writeValueAsString(row));
+                w.newLine();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
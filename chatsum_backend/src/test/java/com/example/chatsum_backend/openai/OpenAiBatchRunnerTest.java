@@ -0,0 +1,60 @@
+package com.example.chatsum_backend.openai;
+
+import com.example.chatsum_backend.config.OpenAiProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAiBatchRunnerTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    @BeforeEach
+    void startScheduler() {
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void stopScheduler() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void run_retriesAFailedPoll_insteadOfDroppingTheBatch(@TempDir Path dir) {
+        AtomicInteger polls = new AtomicInteger();
+        LocalFileBatchEndpoint endpoint = new LocalFileBatchEndpoint(dir, om, body -> "ok") {
+            @Override
+            public synchronized BatchStatus poll(String batchId) {
+                if (polls.incrementAndGet() == 1) throw new RuntimeException("OpenAI batch call failed: HTTP 502");
+                return super.poll(batchId);
+            }
+        };
+        OpenAiProperties props = new OpenAiProperties(
+                "test-key", "gpt-5-mini", null, null, null,
+                new OpenAiProperties.Timeouts(20, 300),
+                new OpenAiProperties.Batch(0, 1, "24h"),
+                null
+        );
+        OpenAiBatchRunner runner = new OpenAiBatchRunner(endpoint, props, om, scheduler);
+        byte[] body = "{\"input\":\"hi\"}".getBytes(StandardCharsets.UTF_8);
+
+        Map<String, JsonNode> results = runner.run(List.of(new OpenAiBatchRunner.BatchCall("c1", body)));
+
+        assertThat(results).containsOnlyKeys("c1");
+        assertThat(polls).hasValue(3); // failed, in progress, completed
+        assertThat(endpoint.cancelled()).isEmpty();
+    }
+}
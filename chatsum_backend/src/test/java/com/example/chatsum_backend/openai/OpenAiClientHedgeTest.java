@@ -0,0 +1,58 @@
+package com.example.chatsum_backend.openai;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OpenAiClientHedgeTest {
+
+    @Test
+    void settle_firstAnswerWins_andCarriesWhichAttemptItCameFrom() {
+        CompletableFuture<OpenAiClient.Answer> first = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        HttpResponse<InputStream> fromHedge = response(new AtomicBoolean());
+        AtomicBoolean primaryClosed = new AtomicBoolean();
+        HttpResponse<InputStream> fromPrimary = response(primaryClosed);
+
+        OpenAiClient.settle(first, fromHedge, null, true, failed);
+        OpenAiClient.settle(first, fromPrimary, null, false, failed);
+
+        // the winner is known as soon as first completes, not after the hedge's callback returns
+        assertThat(first.join().hedge()).isTrue();
+        assertThat(first.join().res()).isSameAs(fromHedge);
+        assertThat(primaryClosed).isTrue(); // the late loser's connection is released
+    }
+
+    @Test
+    void settle_failsOnlyOnceBothAttemptsFailed() {
+        CompletableFuture<OpenAiClient.Answer> first = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+
+        OpenAiClient.settle(first, null, new IOException("primary"), false, failed);
+        assertThat(first).isNotDone();
+        OpenAiClient.settle(first, null, new IOException("hedge"), true, failed);
+        assertThat(first).isCompletedExceptionally();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<InputStream> response(AtomicBoolean closed) {
+        HttpResponse<InputStream> res = mock(HttpResponse.class);
+        when(res.body()).thenReturn(new ByteArrayInputStream(new byte[0]) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        });
+        return res;
+    }
+}
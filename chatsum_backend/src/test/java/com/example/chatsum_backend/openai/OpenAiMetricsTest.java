@@ -0,0 +1,48 @@
+package com.example.chatsum_backend.openai;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAiMetricsTest {
+
+    @Test
+    void suggestTimeoutMs_followsObservedTail_andAddsTimeForLargerOutputs() {
+        OpenAiMetrics metrics = new OpenAiMetrics();
+        assertThat(metrics.suggestTimeoutMs(OpenAiStage.CHUNK, 0)).isEmpty();
+
+        // 99 calls at 2s / 500 output tokens, one outlier at 10s
+        for (int i = 0; i < 99; i++) record(metrics, 2_000, 500);
+        record(metrics, 10_000, 500);
+
+        assertThat(metrics.p95LatencyMs(OpenAiStage.CHUNK)).hasValue(2_000);
+        // 1.5 x p99 (2s): the single outlier is above p99 and does not drag the timeout up
+        assertThat(metrics.suggestTimeoutMs(OpenAiStage.CHUNK, 500)).hasValue(3_000);
+        // 1500 tokens beyond the usual 500, at 4 ms/token (p95 rate): 1.5 x (2000 + 6000)
+        assertThat(metrics.suggestTimeoutMs(OpenAiStage.CHUNK, 2_000)).hasValue(12_000);
+        assertThat(metrics.snapshot().get(OpenAiStage.CHUNK.key).p99LatencyMs()).isEqualTo(2_000);
+    }
+
+    @Test
+    void tryHedge_staysWithinBudget_andHedgeDelayIsPerSizeClass() {
+        OpenAiMetrics metrics = new OpenAiMetrics();
+        assertThat(OpenAiMetrics.sizeClass(1_000)).isZero();
+        assertThat(OpenAiMetrics.sizeClass(10_000)).isEqualTo(1);
+        assertThat(OpenAiMetrics.sizeClass(10_000_000)).isEqualTo(3);
+
+        for (int i = 0; i < 100; i++) metrics.recordExchange(OpenAiStage.CHUNK, 0, 1_000);
+        assertThat(metrics.p95ExchangeMs(OpenAiStage.CHUNK, 0)).hasValue(1_000);
+        assertThat(metrics.p95ExchangeMs(OpenAiStage.CHUNK, 1)).isEmpty();
+
+        // 5% of 100 exchanges plus a burst of 2
+        int granted = 0;
+        for (int i = 0; i < 20; i++) if (metrics.tryHedge(OpenAiStage.CHUNK, 0.05)) granted++;
+        assertThat(granted).isEqualTo(7);
+    }
+
+    private static void record(OpenAiMetrics metrics, long latencyMs, int outputTokens) {
+        metrics.recordSuccess(OpenAiStage.CHUNK, "m", new OpenAiUsage(1_000, 0, outputTokens), BigDecimal.ZERO, latencyMs);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.chatsum_backend.openai;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseStreamReaderTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    @Test
+    void read_pullsMessageOutputTextAndUsage_skippingEverythingElse() {
+        String body = """
+            {
+              "id": "resp_1",
+              "output": [
+                { "type": "reasoning", "content": [ { "type": "output_text", "text": "not this" } ] },
+                { "content": [ { "annotations": [], "text": "hello", "type": "output_text" } ], "type": "message" }
+              ],
+              "metadata": { "nested": [1, 2, { "x": "y" }] },
+              "usage": { "input_tokens": 1200, "input_tokens_details": { "cached_tokens": 1024 }, "output_tokens": 40 }
+            }
+            """;
+
+        ResponseStreamReader.Parsed parsed = read(body);
+
+        assertThat(parsed.outputText()).isEqualTo("hello");
+        assertThat(parsed.usage()).isEqualTo(new OpenAiUsage(1200, 1024, 40));
+    }
+
+    @Test
+    void read_failsWithoutOutputText() {
+        assertThatThrownBy(() -> read("{\"output\": [], \"usage\": {}}"))
+                .hasMessageContaining("No output_text");
+    }
+
+    private ResponseStreamReader.Parsed read(String body) {
+        try (JsonParser p = om.createParser(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))) {
+            return ResponseStreamReader.read(p);
+        }
+    }
+}